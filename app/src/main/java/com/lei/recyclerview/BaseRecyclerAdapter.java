@@ -1,11 +1,31 @@
 package com.lei.recyclerview;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.BatchingListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.lei.recyclerview.paging.PagedList;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @param <T>
@@ -22,6 +42,98 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
 
     protected List<T> mList;
 
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private static ExecutorService sDiffExecutor;
+
+    private DiffUtil.ItemCallback<T> mItemCallback;
+
+    private Executor mDiffExecutor;
+
+    /**
+     * 每次submitList递增，用于丢弃被新提交覆盖的diff结果
+     */
+    private int mMaxScheduledGeneration;
+
+    /**
+     * 正在计算diff、尚未生效的最新提交，追加时拼接在它后面；为null时当前列表就是最新的
+     */
+    private List<T> mLatestList;
+
+    /**
+     * 每次通过适配器修改数据递增，diff计算期间数据被修改则放弃增量通知
+     */
+    private int mModCount;
+
+    /**
+     * 非主线程提交、尚未被主线程处理的最新列表
+     */
+    private final AtomicReference<PendingSubmit<T>> mPendingSubmit = new AtomicReference<>();
+
+    private ItemKeyIndex<T> mKeyIndex;
+
+    /**
+     * 下一个分配给绑定器的viewType，全局递增，不同绑定器的viewType不会冲突
+     */
+    private static int sNextBinderViewType = 0;
+
+    /**
+     * 数据为null时使用的viewType，未设置占位绑定器时使用空白占位
+     */
+    private int mPlaceholderViewType = RecyclerView.INVALID_TYPE;
+
+    private final SparseArray<ItemViewBinder<?, ?>> mBinders = new SparseArray<>();
+
+    private final Map<Class<?>, Integer> mViewTypes = new HashMap<>();
+
+    /**
+     * 数据类到viewType的查找缓存，包含按父类、接口匹配到的结果
+     */
+    private final Map<Class<?>, Integer> mResolvedViewTypes = new HashMap<>();
+
+    private Class<?> mLastItemClass;
+
+    private int mLastViewType;
+
+    /**
+     * 已经按绑定器声明和同屏峰值设置过容量的回收池，RecyclerView换了回收池时重新设置
+     */
+    private RecyclerView.RecycledViewPool mConfiguredPool;
+
+    private RecyclerView mRecyclerView;
+
+    private ViewHolderPrewarmer mPrewarmer;
+
+    private boolean mPrewarmInBackground;
+
+    /**
+     * 各viewType当前在屏幕上的holder数量和观察到的峰值
+     */
+    private final SparseIntArray mAttachedCounts = new SparseIntArray();
+
+    private final SparseIntArray mPeakAttachedCounts = new SparseIntArray();
+
+    /**
+     * 各回收池按同屏峰值或预创建数量放大后的容量，只增不减。
+     * 按回收池记录，共用回收池的适配器不会把彼此放大的容量改小
+     */
+    private static final Map<RecyclerView.RecycledViewPool, SparseIntArray> sGrownPoolSizes = new WeakHashMap<>();
+
+    /**
+     * RecyclerView回收池默认每种类型缓存5个
+     */
+    private static final int DEFAULT_MAX_RECYCLED_VIEWS = 5;
+
+    private final ListUpdateCallback mAdapterUpdateCallback = new AdapterListUpdateCallback(this);
+
+    private BatchingListUpdateCallback mBatchingCallback;
+
+    private int mBatchDepth;
+
+    /**
+     * 批量编辑期间发生过整体刷新，提交时只需一次notifyDataSetChanged
+     */
+    private boolean mBatchInvalidated;
 
     public BaseRecyclerAdapter(Context context) {
         this(context, new ArrayList<T>());
@@ -37,6 +149,300 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
         return mInflater;
     }
 
+    /**
+     * 注册数据类型及其绑定器，viewType按绑定器实例自动分配，子类或实现类的数据使用最近的已注册类型。
+     * 同一个绑定器实例在多个适配器中注册时viewType相同，共用回收池时holder可以互相复用。
+     * 使用注册方式时不需要重写getItemViewType，可直接使用{@link MultiTypeAdapter}。
+     *
+     * @param clazz
+     * @param binder
+     */
+    public <E extends T> BaseRecyclerAdapter<T> register(Class<E> clazz, ItemViewBinder<? super E, ?> binder) {
+        if (mPlaceholderViewType == RecyclerView.INVALID_TYPE) {
+            // 在这里而不是getItemViewType中注册，布局和预取期间不修改适配器和回收池
+            setPlaceholderBinder(new EmptyPlaceholderBinder<T>());
+        }
+        int viewType = obtainBinderViewType(binder);
+        mBinders.put(viewType, binder);
+        mViewTypes.put(clazz, viewType);
+        mResolvedViewTypes.clear();
+        mLastItemClass = null;
+        RecyclerView.RecycledViewPool pool = getRecycledViewPool();
+        if (pool != null && binder.getMaxRecycledViews() > 0) {
+            pool.setMaxRecycledViews(viewType, binder.getMaxRecycledViews());
+        }
+        return this;
+    }
+
+    /**
+     * 设置数据为null时（如{@link PagedList}未加载的位置）使用的绑定器，绑定时item为null。
+     * 未设置时null数据显示为空白占位
+     *
+     * @param binder
+     */
+    public BaseRecyclerAdapter<T> setPlaceholderBinder(ItemViewBinder<? super T, ?> binder) {
+        if (mPlaceholderViewType != RecyclerView.INVALID_TYPE) {
+            mBinders.remove(mPlaceholderViewType);
+        }
+        mPlaceholderViewType = obtainBinderViewType(binder);
+        mBinders.put(mPlaceholderViewType, binder);
+        RecyclerView.RecycledViewPool pool = getRecycledViewPool();
+        if (pool != null && binder.getMaxRecycledViews() > 0) {
+            pool.setMaxRecycledViews(mPlaceholderViewType, binder.getMaxRecycledViews());
+        }
+        return this;
+    }
+
+    private static int obtainBinderViewType(ItemViewBinder<?, ?> binder) {
+        synchronized (BaseRecyclerAdapter.class) {
+            if (binder.mViewType == RecyclerView.INVALID_TYPE) {
+                binder.mViewType = sNextBinderViewType++;
+            }
+            return binder.mViewType;
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        if (mBinders.size() == 0) {
+            return super.getItemViewType(position);
+        }
+        T item = getItem(position);
+        if (item == null) {
+            // 有绑定器时一定设置过占位绑定器，见register
+            return mPlaceholderViewType;
+        }
+        Class<?> clazz = item.getClass();
+        if (clazz == mLastItemClass) {
+            return mLastViewType;
+        }
+        Integer viewType = findViewType(clazz);
+        if (viewType == null) {
+            throw new IllegalStateException("no ItemViewBinder registered for " + clazz.getName());
+        }
+        mLastItemClass = clazz;
+        mLastViewType = viewType;
+        return viewType;
+    }
+
+    private Integer findViewType(Class<?> clazz) {
+        Integer viewType = mResolvedViewTypes.get(clazz);
+        if (viewType != null) {
+            return viewType;
+        }
+        for (Class<?> c = clazz; c != null && viewType == null; c = c.getSuperclass()) {
+            viewType = mViewTypes.get(c);
+        }
+        if (viewType == null) {
+            for (Class<?> c = clazz; c != null && viewType == null; c = c.getSuperclass()) {
+                for (Class<?> i : c.getInterfaces()) {
+                    viewType = mViewTypes.get(i);
+                    if (viewType != null) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (viewType != null) {
+            mResolvedViewTypes.put(clazz, viewType);
+        }
+        return viewType;
+    }
+
+    /**
+     * 由注册的绑定器创建holder，子类在onCreateViewHolder中调用，参见{@link MultiTypeAdapter}
+     */
+    protected BaseViewHolder createBinderViewHolder(ViewGroup parent, int viewType) {
+        ItemViewBinder<?, ?> binder = mBinders.get(viewType);
+        if (binder == null) {
+            throw new IllegalStateException("no ItemViewBinder registered for viewType " + viewType);
+        }
+        return binder.onCreateViewHolder(mInflater, parent);
+    }
+
+    /**
+     * 由注册的绑定器绑定数据，子类在onBindViewHolder中调用，参见{@link MultiTypeAdapter}
+     */
+    @SuppressWarnings("unchecked")
+    protected void bindBinderViewHolder(BaseViewHolder holder, int position) {
+        ItemViewBinder<Object, BaseViewHolder> binder =
+                (ItemViewBinder<Object, BaseViewHolder>) mBinders.get(holder.getItemViewType());
+        if (binder == null) {
+            throw new IllegalStateException("no ItemViewBinder registered for viewType " + holder.getItemViewType());
+        }
+        binder.onBindViewHolder(holder, getItem(position), position);
+    }
+
+    @Override
+    public void onBindViewHolder(BaseViewHolder holder, int position, List<Object> payloads) {
+        if (payloads.isEmpty() || !onBindPayloads(holder, position, payloads)) {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    /**
+     * 带payload的局部刷新，payload来自{@link DiffUtil.ItemCallback#getChangePayload(Object, Object)}
+     * 或notifyItemChanged(position, payload)，子类重写以只更新变化的控件
+     *
+     * @param payloads 非空
+     * @return 是否已处理，返回false时执行完整绑定
+     */
+    @SuppressWarnings("unchecked")
+    protected boolean onBindPayloads(BaseViewHolder holder, int position, List<Object> payloads) {
+        ItemViewBinder<Object, BaseViewHolder> binder =
+                (ItemViewBinder<Object, BaseViewHolder>) mBinders.get(holder.getItemViewType());
+        return binder != null && binder.onBindPayloads(holder, getItem(position), position, payloads);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+        getRecycledViewPool();
+    }
+
+    /**
+     * 每次使用时从RecyclerView读取，适配器设置之后再调用setRecycledViewPool也能用到新的回收池
+     *
+     * @return 未关联RecyclerView时返回null
+     */
+    private RecyclerView.RecycledViewPool getRecycledViewPool() {
+        if (mRecyclerView == null) {
+            return null;
+        }
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        if (pool != mConfiguredPool) {
+            mConfiguredPool = pool;
+            for (int i = 0; i < mBinders.size(); i++) {
+                int max = mBinders.valueAt(i).getMaxRecycledViews();
+                if (max > 0) {
+                    pool.setMaxRecycledViews(mBinders.keyAt(i), max);
+                }
+            }
+            for (int i = 0; i < mPeakAttachedCounts.size(); i++) {
+                applyObservedPoolSize(pool, mPeakAttachedCounts.keyAt(i), mPeakAttachedCounts.valueAt(i));
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (mRecyclerView == recyclerView) {
+            mRecyclerView = null;
+            mConfiguredPool = null;
+            if (mPrewarmer != null) {
+                mPrewarmer.cancel();
+            }
+        }
+        mAttachedCounts.clear();
+    }
+
+    @Override
+    public void onViewAttachedToWindow(BaseViewHolder holder) {
+        super.onViewAttachedToWindow(holder);
+        if (mPrewarmer != null) {
+            mPrewarmer.onViewAttachedToWindow(holder);
+        }
+        int viewType = holder.getItemViewType();
+        int count = mAttachedCounts.get(viewType) + 1;
+        mAttachedCounts.put(viewType, count);
+        if (count > mPeakAttachedCounts.get(viewType)) {
+            mPeakAttachedCounts.put(viewType, count);
+            RecyclerView.RecycledViewPool pool = getRecycledViewPool();
+            if (pool != null) {
+                applyObservedPoolSize(pool, viewType, count);
+            }
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(BaseViewHolder holder) {
+        super.onViewDetachedFromWindow(holder);
+        int viewType = holder.getItemViewType();
+        mAttachedCounts.put(viewType, Math.max(mAttachedCounts.get(viewType) - 1, 0));
+    }
+
+    /**
+     * onCreateViewHolder可以安全地在非主线程执行时设为true，预创建在后台线程inflate
+     *
+     * @param background
+     */
+    public void setPrewarmInBackground(boolean background) {
+        this.mPrewarmInBackground = background;
+    }
+
+    /**
+     * 提前创建count个viewType类型的holder放入回收池，首次滑动时直接复用。
+     * 需在适配器设置给RecyclerView之后调用，默认在主线程空闲时逐个创建。
+     *
+     * @param viewType
+     * @param count
+     */
+    public void prewarm(int viewType, int count) {
+        if (mRecyclerView == null) {
+            throw new IllegalStateException("prewarm() requires the adapter to be attached to a RecyclerView");
+        }
+        if (mPrewarmer == null) {
+            mPrewarmer = new ViewHolderPrewarmer(this);
+        }
+        RecyclerView.RecycledViewPool pool = getRecycledViewPool();
+        ItemViewBinder<?, ?> binder = mBinders.get(viewType);
+        int declared = binder == null ? 0 : binder.getMaxRecycledViews();
+        int recycled = pool.getRecycledViewCount(viewType);
+        if (declared > 0) {
+            // 声明了固定容量时不超过它
+            count = Math.min(count, declared - recycled);
+        } else {
+            growPoolSize(pool, viewType, recycled + count);
+        }
+        mPrewarmer.prewarm(mRecyclerView, viewType, count, mPrewarmInBackground);
+    }
+
+    /**
+     * @return 预创建并放入回收池的holder数
+     */
+    public int getPrewarmedCount() {
+        return mPrewarmer == null ? 0 : mPrewarmer.getPrewarmedCount();
+    }
+
+    /**
+     * @return 预创建的holder被实际使用的次数，即省下的onCreateViewHolder次数
+     */
+    public int getPrewarmHitCount() {
+        return mPrewarmer == null ? 0 : mPrewarmer.getHitCount();
+    }
+
+    /**
+     * 同屏数量超过默认缓存数时放大回收池，避免快速滚动时该类型的holder被丢弃后重新创建
+     */
+    private void applyObservedPoolSize(RecyclerView.RecycledViewPool pool, int viewType, int peak) {
+        if (peak <= DEFAULT_MAX_RECYCLED_VIEWS) {
+            return;
+        }
+        ItemViewBinder<?, ?> binder = mBinders.get(viewType);
+        if (binder != null && binder.getMaxRecycledViews() > 0) {
+            return;
+        }
+        growPoolSize(pool, viewType, peak + 1);
+    }
+
+    /**
+     * 只在大于回收池当前容量时设置，回收池没有公开读取容量的方法，由所有适配器共同记录
+     */
+    private static void growPoolSize(RecyclerView.RecycledViewPool pool, int viewType, int size) {
+        SparseIntArray sizes = sGrownPoolSizes.get(pool);
+        if (sizes == null) {
+            sizes = new SparseIntArray();
+            sGrownPoolSizes.put(pool, sizes);
+        }
+        if (size > sizes.get(viewType, DEFAULT_MAX_RECYCLED_VIEWS)) {
+            sizes.put(viewType, size);
+            pool.setMaxRecycledViews(viewType, size);
+        }
+    }
+
     @Override
     public int getItemCount() {
         if (mList != null) {
@@ -56,29 +462,224 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
      * 刷新列表
      *
      * @param list
-     * @param append 是否将新数据追加到尾部
+     * @param append 是否将新数据追加到尾部，追加时只通知插入的范围
      */
     public BaseRecyclerAdapter<T> refresh(List<T> list, boolean append) {
         if (list == null) {
             list = new ArrayList<>();
         }
-        if (!append) {
-            this.mList.clear();
+        if (append) {
+            insertRange(getItemCount(), list);
+            return this;
         }
-        this.mList.addAll(list);
-        notifyDataSetChanged();
+        cancelPendingSubmits();
+        replaceList(list);
+        onListReset();
+        mModCount++;
+        dispatchDataSetChanged();
         return this;
     }
 
     public void addList(List<T> content, int position) {
-        if (content != null && content.size() > 0) {
-            for (T t : content) {
-                mList.add(position, t);
+        insertRange(position, content);
+    }
+
+    /**
+     * 批量插入，一次数组移动和一次范围通知
+     *
+     * @param position 插入位置
+     * @param content
+     */
+    public void insertRange(int position, List<T> content) {
+        if (content == null || content.isEmpty()) {
+            return;
+        }
+        checkMutable();
+        List<T> list = getList();
+        checkPositionIndex(position, list.size());
+        list.addAll(position, content);
+        onListChanged(position);
+        dispatchInserted(position, content.size());
+    }
+
+    /**
+     * 批量删除[position, position + count)
+     *
+     * @param position
+     * @param count
+     */
+    public void removeRange(int position, int count) {
+        if (count <= 0) {
+            return;
+        }
+        checkMutable();
+        List<T> list = getList();
+        checkRange(position, count, list.size());
+        beforeRemove(list, position, count);
+        list.subList(position, position + count).clear();
+        onListChanged(position);
+        dispatchRemoved(position, count);
+    }
+
+    /**
+     * 将[fromPosition, fromPosition + count)整段移动，移动后首个元素位于toPosition
+     *
+     * @param fromPosition
+     * @param count
+     * @param toPosition 移动完成后该段在列表中的起始位置
+     */
+    public void moveRange(int fromPosition, int count, int toPosition) {
+        if (count <= 0 || fromPosition == toPosition) {
+            return;
+        }
+        checkMutable();
+        List<T> list = getList();
+        checkRange(fromPosition, count, list.size());
+        checkRange(toPosition, count, list.size());
+        List<T> segment = list.subList(fromPosition, fromPosition + count);
+        List<T> moved = new ArrayList<>(segment);
+        segment.clear();
+        list.addAll(toPosition, moved);
+        onListChanged(Math.min(fromPosition, toPosition));
+        // RecyclerView没有范围移动通知，逐个分发以保留移动动画
+        if (toPosition > fromPosition) {
+            for (int i = 0; i < count; i++) {
+                dispatchMoved(fromPosition, toPosition + count - 1);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                dispatchMoved(fromPosition + i, toPosition + i);
+            }
+        }
+    }
+
+    /**
+     * 用content替换[position, position + count)，两者长度可以不同
+     *
+     * @param position
+     * @param count 被替换的元素个数
+     * @param content
+     */
+    public void replaceRange(int position, int count, List<T> content) {
+        checkMutable();
+        List<T> list = getList();
+        checkRange(position, count, list.size());
+        int newCount = content == null ? 0 : content.size();
+        int common = Math.min(count, newCount);
+        for (int i = 0; i < common; i++) {
+            T oldItem = list.set(position + i, content.get(i));
+            if (mKeyIndex != null) {
+                mKeyIndex.onReplaced(oldItem, content.get(i), position + i);
+            }
+        }
+        if (count > newCount) {
+            beforeRemove(list, position + common, count - newCount);
+            list.subList(position + common, position + count).clear();
+        } else if (newCount > count) {
+            list.addAll(position + common, content.subList(common, newCount));
+        }
+        onListChanged(position + common);
+        if (common > 0) {
+            dispatchChanged(position, common, null);
+        }
+        if (count > newCount) {
+            dispatchRemoved(position + common, count - newCount);
+        } else if (newCount > count) {
+            dispatchInserted(position + common, newCount - count);
+        }
+    }
+
+    /**
+     * 开始批量编辑
+     * <p/>
+     * 之后的增删改只修改数据，刷新通知暂存并合并相邻、重叠的范围，直到{@link #commit()}一次性分发。
+     * 可以嵌套，最外层commit时分发。beginBatch与commit必须在同一次主线程消息中成对调用，
+     * 否则RecyclerView会在数据与通知不一致时布局。
+     */
+    public void beginBatch() {
+        if (mBatchDepth++ == 0) {
+            mBatchingCallback = new BatchingListUpdateCallback(mAdapterUpdateCallback);
+            mBatchInvalidated = false;
+        }
+    }
+
+    /**
+     * 结束批量编辑并分发合并后的刷新通知
+     */
+    public void commit() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("commit() called without beginBatch()");
+        }
+        if (--mBatchDepth == 0) {
+            BatchingListUpdateCallback batchingCallback = mBatchingCallback;
+            mBatchingCallback = null;
+            if (mBatchInvalidated) {
+                mBatchInvalidated = false;
+                notifyDataSetChanged();
+            } else {
+                batchingCallback.dispatchLastEvent();
             }
+        }
+    }
+
+    public boolean isInBatch() {
+        return mBatchDepth > 0;
+    }
+
+    /**
+     * 返回当前的刷新通知分发目标，批量编辑期间为合并通知的回调
+     */
+    protected ListUpdateCallback getUpdateCallback() {
+        return mBatchingCallback != null ? mBatchingCallback : mAdapterUpdateCallback;
+    }
+
+    protected void dispatchInserted(int position, int count) {
+        getUpdateCallback().onInserted(position, count);
+    }
+
+    protected void dispatchRemoved(int position, int count) {
+        getUpdateCallback().onRemoved(position, count);
+    }
+
+    protected void dispatchMoved(int fromPosition, int toPosition) {
+        getUpdateCallback().onMoved(fromPosition, toPosition);
+    }
+
+    protected void dispatchChanged(int position, int count, Object payload) {
+        getUpdateCallback().onChanged(position, count, payload);
+    }
+
+    protected void dispatchDataSetChanged() {
+        if (mBatchingCallback != null) {
+            mBatchInvalidated = true;
+        } else {
             notifyDataSetChanged();
         }
     }
 
+    /**
+     * 分页列表是只读的，数据由{@link PagedList}自己加载
+     */
+    private void checkMutable() {
+        if (mList instanceof PagedList) {
+            throw new IllegalStateException("the list is a PagedList and cannot be modified, "
+                    + "use refresh() or submitList() to replace it");
+        }
+    }
+
+    private static void checkPositionIndex(int position, int size) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("position: " + position + ", size: " + size);
+        }
+    }
+
+    private static void checkRange(int position, int count, int size) {
+        if (position < 0 || count < 0 || position + count > size) {
+            throw new IndexOutOfBoundsException("position: " + position + ", count: " + count
+                    + ", size: " + size);
+        }
+    }
+
     /**
      * 单个添加数据
      *
@@ -86,8 +687,10 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
      * @param position
      */
     public void addItem(T content, int position) {
+        checkMutable();
         mList.add(position, content);
-        notifyItemInserted(position); // Attention!
+        onListChanged(position);
+        dispatchInserted(position, 1); // Attention!
     }
 
     /**
@@ -96,9 +699,8 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
      * @param model
      */
     public void removeItem(T model) {
-        int position = mList.indexOf(model);
-        mList.remove(position);
-        notifyItemRemoved(position);// Attention!
+        int position = mKeyIndex != null ? findPosition(mKeyIndex.getKey(model)) : mList.indexOf(model);
+        removeItem(position);
     }
 
     /**
@@ -107,9 +709,12 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
      * @param position
      */
     public void removeItem(int position) {
+        checkMutable();
         if (position >= 0 && position < mList.size()) {
+            beforeRemove(mList, position, 1);
             mList.remove(position);
-            notifyItemRemoved(position);// Attention!
+            onListChanged(position);
+            dispatchRemoved(position, 1);// Attention!
         }
     }
 
@@ -119,8 +724,11 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
      * @param position
      */
     public void removeItemUnSafe(int position) {
+        checkMutable();
+        beforeRemove(mList, position, 1);
         mList.remove(position);
-        notifyItemRemoved(position);// Attention!
+        onListChanged(position);
+        dispatchRemoved(position, 1);// Attention!
     }
 
     /**
@@ -135,6 +743,391 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
         return this;
     }
 
+    /**
+     * 设置列表项比较规则，{@link #submitList(List)}依据它在后台计算新旧列表差异
+     *
+     * @param itemCallback
+     */
+    public void setItemCallback(DiffUtil.ItemCallback<T> itemCallback) {
+        this.mItemCallback = itemCallback;
+    }
+
+    /**
+     * 设置计算diff的线程池，默认使用所有适配器共享的后台线程池
+     *
+     * @param executor
+     */
+    public void setDiffExecutor(Executor executor) {
+        this.mDiffExecutor = executor;
+    }
+
+    /**
+     * 异步刷新列表，可以在任意线程调用，和{@link #submitList(List)}按调用顺序生效
+     *
+     * @param list
+     * @param append 是否将新数据追加到尾部
+     */
+    public BaseRecyclerAdapter<T> refreshAsync(List<T> list, boolean append) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            enqueueSubmit(list, null, append);
+            return this;
+        }
+        if (append) {
+            // 之前的后台提交先生效，追加在它后面；还在计算diff的提交也算在内
+            mApplyPendingSubmit.run();
+            List<T> base = mLatestList != null ? mLatestList : getList();
+            if (base instanceof PagedList) {
+                // 复制分页列表会加载所有被丢弃的页，分页列表不能追加，直接替换
+                submitList(list);
+                return this;
+            }
+            List<T> newList = new ArrayList<>(base);
+            if (list != null) {
+                newList.addAll(list);
+            }
+            submitList(newList);
+        } else {
+            submitList(list);
+        }
+        return this;
+    }
+
+    /**
+     * 提交新列表
+     * <p/>
+     * 未设置{@link #setItemCallback(DiffUtil.ItemCallback)}或当前数据为{@link PagedList}时等同于{@link #refresh(List)}
+     *
+     * @param list
+     */
+    public void submitList(List<T> list) {
+        submitList(list, null);
+    }
+
+    /**
+     * 提交新列表，在后台线程计算与当前列表的差异，回到主线程后替换数据并分发局部刷新通知。
+     * 尚未完成的旧提交会被新的提交取消。
+     * <p/>
+     * 可以在任意线程调用：非主线程提交的列表会先复制为不可变快照，由主线程统一替换，
+     * 主线程处理前的多次提交只保留最后一次，调用方无需加锁或自行切换线程。
+     *
+     * @param list
+     * @param commitCallback 新列表生效后在主线程回调，提交被取消时不回调
+     */
+    public void submitList(List<T> list, final Runnable commitCallback) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            enqueueSubmit(list, commitCallback, false);
+            return;
+        }
+        // 主线程的提交比所有尚未处理的后台提交都新
+        mPendingSubmit.set(null);
+        final int runGeneration = ++mMaxScheduledGeneration;
+        final List<T> newList = list == null ? new ArrayList<T>() : new ArrayList<>(list);
+        final List<T> oldList = getList();
+
+        // 和分页列表diff需要读取每一页，未加载的页都会被加载，直接整体替换
+        if (mItemCallback == null || oldList instanceof PagedList) {
+            refresh(newList);
+            dispatchCommitCallback(commitCallback);
+            return;
+        }
+        if (oldList.isEmpty() || newList.isEmpty()) {
+            // 无需diff，直接整段插入或删除
+            int oldSize = oldList.size();
+            mLatestList = null;
+            replaceList(newList);
+            onListReset();
+            mModCount++;
+            if (oldSize > 0) {
+                dispatchRemoved(0, oldSize);
+            }
+            if (newList.size() > 0) {
+                dispatchInserted(0, newList.size());
+            }
+            dispatchCommitCallback(commitCallback);
+            return;
+        }
+
+        mLatestList = newList;
+        final List<T> oldSnapshot = new ArrayList<>(oldList);
+        final DiffUtil.ItemCallback<T> itemCallback = mItemCallback;
+        final int modCount = mModCount;
+        getDiffExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
+                        new ListDiffCallback<>(oldSnapshot, newList, itemCallback));
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mMaxScheduledGeneration == runGeneration) {
+                            latchList(newList, result, modCount);
+                            dispatchCommitCallback(commitCallback);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 非主线程的提交都进入同一个槽位，主线程处理前只保留最终结果：
+     * 替换会覆盖之前的提交，追加则拼接到之前提交的列表后面
+     */
+    private void enqueueSubmit(List<T> list, Runnable commitCallback, boolean append) {
+        List<T> snapshot = list == null ? new ArrayList<T>() : new ArrayList<>(list);
+        while (true) {
+            PendingSubmit<T> prev = mPendingSubmit.get();
+            PendingSubmit<T> next;
+            if (append && prev != null) {
+                List<T> merged = new ArrayList<>(prev.mList);
+                merged.addAll(snapshot);
+                next = new PendingSubmit<>(Collections.unmodifiableList(merged), prev.mCommitCallback, prev.mAppend);
+            } else {
+                next = new PendingSubmit<>(Collections.unmodifiableList(snapshot), commitCallback, append);
+            }
+            if (mPendingSubmit.compareAndSet(prev, next)) {
+                if (prev == null) {
+                    sMainHandler.post(mApplyPendingSubmit);
+                }
+                return;
+            }
+        }
+    }
+
+    private final Runnable mApplyPendingSubmit = new Runnable() {
+        @Override
+        public void run() {
+            PendingSubmit<T> pending = mPendingSubmit.getAndSet(null);
+            if (pending == null) {
+                return;
+            }
+            if (pending.mAppend) {
+                refreshAsync(pending.mList, true);
+            } else {
+                submitList(pending.mList, pending.mCommitCallback);
+            }
+        }
+    };
+
+    private void latchList(List<T> newList, DiffUtil.DiffResult result, int modCount) {
+        mLatestList = null;
+        replaceList(newList);
+        onListReset();
+        if (modCount == mModCount) {
+            mModCount++;
+            result.dispatchUpdatesTo(getUpdateCallback());
+        } else {
+            // diff计算期间列表被修改过，增量通知已不可靠
+            mModCount++;
+            dispatchDataSetChanged();
+        }
+    }
+
+    /**
+     * 整体替换数据。分页列表不能修改，直接换成新的列表；其他列表原地替换，保留调用方选择的存储结构
+     */
+    private void replaceList(List<T> newList) {
+        if (mList instanceof PagedList) {
+            ((PagedList) mList).setUpdateCallback(null);
+            mList = new ArrayList<>(newList);
+            return;
+        }
+        List<T> list = getList();
+        list.clear();
+        list.addAll(newList);
+    }
+
+    /**
+     * 通过适配器直接修改数据时调用，之前的提交基于旧数据，计算完成后不再生效
+     */
+    private void cancelPendingSubmits() {
+        mMaxScheduledGeneration++;
+        mLatestList = null;
+    }
+
+    private void dispatchCommitCallback(Runnable commitCallback) {
+        if (commitCallback != null) {
+            commitCallback.run();
+        }
+    }
+
+    private Executor getDiffExecutor() {
+        if (mDiffExecutor != null) {
+            return mDiffExecutor;
+        }
+        synchronized (BaseRecyclerAdapter.class) {
+            if (sDiffExecutor == null) {
+                sDiffExecutor = Executors.newFixedThreadPool(2);
+            }
+            return sDiffExecutor;
+        }
+    }
+
+    /**
+     * 设置列表项的唯一标识，设置后维护key到位置的索引并自动提供稳定id。
+     * 需在适配器设置给RecyclerView（或{@link com.lei.recyclerview.widget.PullToLoadView#setAdapter}）之前调用，
+     * 之后再开启或关闭stable ids会抛出IllegalStateException。
+     * 绕过适配器直接修改{@link #getList()}时索引会在下次查询时重建。
+     *
+     * @param keyProvider
+     */
+    public void setItemKeyProvider(ItemKeyProvider<T> keyProvider) {
+        boolean stableIds = keyProvider != null;
+        if (hasStableIds() != stableIds) {
+            if (hasObservers()) {
+                throw new IllegalStateException(
+                        "setItemKeyProvider() must be called before the adapter is attached");
+            }
+            setHasStableIds(stableIds);
+        }
+        mKeyIndex = stableIds ? new ItemKeyIndex<>(keyProvider) : null;
+        if (mKeyIndex != null) {
+            mKeyIndex.reset(getList());
+        }
+    }
+
+    /**
+     * 根据key查找位置
+     *
+     * @param key
+     * @return 位置，不存在时返回{@link RecyclerView#NO_POSITION}
+     */
+    public int findPosition(Object key) {
+        if (mKeyIndex == null) {
+            throw new IllegalStateException("setItemKeyProvider() must be called first");
+        }
+        return mKeyIndex.indexOf(getList(), key);
+    }
+
+    /**
+     * 根据key删除
+     *
+     * @param key
+     * @return 是否找到并删除
+     */
+    public boolean removeByKey(Object key) {
+        int position = findPosition(key);
+        if (position == RecyclerView.NO_POSITION) {
+            return false;
+        }
+        removeItem(position);
+        return true;
+    }
+
+    /**
+     * 根据key替换数据，新数据的key应与原key相同
+     *
+     * @param key
+     * @param item
+     * @return 是否找到并替换
+     */
+    public boolean updateByKey(Object key, T item) {
+        int position = findPosition(key);
+        if (position == RecyclerView.NO_POSITION) {
+            return false;
+        }
+        updateItem(position, item);
+        return true;
+    }
+
+    /**
+     * 替换单个数据并局部刷新，设置了{@link #setItemCallback(DiffUtil.ItemCallback)}时
+     * 由其计算payload，绑定时只更新变化的部分
+     *
+     * @param position
+     * @param item
+     */
+    public void updateItem(int position, T item) {
+        checkMutable();
+        List<T> list = getList();
+        checkRange(position, 1, list.size());
+        T oldItem = list.set(position, item);
+        if (mKeyIndex != null) {
+            mKeyIndex.onReplaced(oldItem, item, position);
+        }
+        cancelPendingSubmits();
+        mModCount++;
+        Object payload = null;
+        if (mItemCallback != null && oldItem != null && item != null) {
+            payload = mItemCallback.getChangePayload(oldItem, item);
+        }
+        dispatchChanged(position, 1, payload);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        if (mKeyIndex != null) {
+            return mKeyIndex.getStableId(getItem(position), position);
+        }
+        return super.getItemId(position);
+    }
+
+    private void beforeRemove(List<T> list, int position, int count) {
+        if (mKeyIndex != null) {
+            mKeyIndex.removeKeys(list, position, count);
+        }
+    }
+
+    private void onListChanged(int fromPosition) {
+        cancelPendingSubmits();
+        mModCount++;
+        if (mKeyIndex != null) {
+            mKeyIndex.invalidateFrom(fromPosition);
+        }
+    }
+
+    private void onListReset() {
+        if (mKeyIndex != null) {
+            mKeyIndex.reset(getList());
+        }
+    }
+
+    /**
+     * 使用分页列表作为数据，数据的加载和丢弃由PagedList负责，
+     * 未加载的位置{@link #getItem(int)}返回null，绑定时需要显示占位。
+     * 使用期间增删改方法（包括追加的refresh(list, true)）会抛出IllegalStateException，
+     * {@link com.lei.recyclerview.widget.PullToLoadView}也不再触发加载更多和向前加载。
+     *
+     * @param pagedList
+     */
+    public void setPagedList(final PagedList<T> pagedList) {
+        if (mList instanceof PagedList) {
+            ((PagedList) mList).setUpdateCallback(null);
+        }
+        cancelPendingSubmits();
+        mList = pagedList;
+        onListReset();
+        mModCount++;
+        pagedList.setUpdateCallback(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                onListChanged(position);
+                dispatchInserted(position, count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                onListReset();
+                mModCount++;
+                dispatchRemoved(position, count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                onListChanged(Math.min(fromPosition, toPosition));
+                dispatchMoved(fromPosition, toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                onListChanged(position);
+                dispatchChanged(position, count, payload);
+            }
+        });
+        dispatchDataSetChanged();
+        pagedList.loadAround(0, 0);
+    }
+
     public List<T> getList() {
         if (mList == null) {
             mList = new ArrayList<>();
@@ -142,4 +1135,91 @@ public abstract class BaseRecyclerAdapter<T> extends RecyclerView.Adapter<BaseVi
         return mList;
     }
 
+    /**
+     * 默认的空白占位，数据加载后替换为正常的item
+     */
+    private static class EmptyPlaceholderBinder<T> extends ItemViewBinder<T, BaseViewHolder> {
+
+        @Override
+        protected BaseViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.WRAP_CONTENT));
+            return new BaseViewHolder(view);
+        }
+
+        @Override
+        protected void onBindViewHolder(BaseViewHolder holder, T item, int position) {
+        }
+    }
+
+    private static class PendingSubmit<T> {
+
+        final List<T> mList;
+        final Runnable mCommitCallback;
+        /**
+         * 追加到主线程处理时的最新列表后面，而不是替换它
+         */
+        final boolean mAppend;
+
+        PendingSubmit(List<T> list, Runnable commitCallback, boolean append) {
+            mList = list;
+            mCommitCallback = commitCallback;
+            mAppend = append;
+        }
+    }
+
+    private static class ListDiffCallback<T> extends DiffUtil.Callback {
+
+        private final List<T> mOldList;
+        private final List<T> mNewList;
+        private final DiffUtil.ItemCallback<T> mItemCallback;
+
+        ListDiffCallback(List<T> oldList, List<T> newList, DiffUtil.ItemCallback<T> itemCallback) {
+            mOldList = oldList;
+            mNewList = newList;
+            mItemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.areItemsTheSame(oldItem, newItem);
+            }
+            return oldItem == null && newItem == null;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.areContentsTheSame(oldItem, newItem);
+            }
+            return oldItem == null && newItem == null;
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.getChangePayload(oldItem, newItem);
+            }
+            return null;
+        }
+    }
+
 }
@@ -1,7 +1,11 @@
 package com.lei.recyclerview;
 
 import androidx.recyclerview.widget.RecyclerView;
+import android.util.SparseArray;
 import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
 
 /**
  * @author wellor
@@ -16,26 +20,128 @@ public class BaseViewHolder extends RecyclerView.ViewHolder {
 
     private OnItemClickListener mItemClickListener;
 
+    /**
+     * id到控件的缓存，构造时遍历一次itemView填充，绑定时不再查找控件树
+     */
+    private final SparseArray<View> mViews = new SparseArray<>();
+
+    /**
+     * 单个item的点击监听，只在第一次设置时给itemView创建点击监听；
+     * 列表的点击优先使用{@link ItemClickDispatcher}，不需要每个ViewHolder单独设置
+     *
+     * @param mItemClickListener
+     */
     public void setOnItemClickListener(
             final OnItemClickListener mItemClickListener) {
+        if (this.mItemClickListener == null && mItemClickListener != null) {
+            itemView.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    int position = getAdapterPosition();
+                    if (BaseViewHolder.this.mItemClickListener != null
+                            && position != RecyclerView.NO_POSITION) {
+                        BaseViewHolder.this.mItemClickListener.onItemClick(v, position);
+                    }
+                }
+            });
+        }
         this.mItemClickListener = mItemClickListener;
     }
 
+    /**
+     * itemView保持可点击，保留按下效果和无障碍的点击动作。
+     * 无障碍服务的点击不经过触摸事件，{@link ItemClickDispatcher}收不到，
+     * 需要支持时使用{@link #setOnItemClickListener(OnItemClickListener)}
+     *
+     * @param itemView
+     */
     public BaseViewHolder(View itemView) {
         super(itemView);
-        itemView.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                if (mItemClickListener != null) {
-                    mItemClickListener.onItemClick(v, getLayoutPosition());
-                }
+        itemView.setClickable(true);
+        cacheViews(itemView);
+    }
+
+    /**
+     * 按findViewById的顺序（先父后子、深度优先）缓存所有带id的控件，重复id保留第一个
+     */
+    private void cacheViews(View view) {
+        final int id = view.getId();
+        if (id != View.NO_ID && mViews.indexOfKey(id) < 0) {
+            mViews.put(id, view);
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, count = group.getChildCount(); i < count; i++) {
+                cacheViews(group.getChildAt(i));
             }
-        });
+        }
     }
 
     protected View getView(View itemView, int id) {
+        if (itemView == this.itemView) {
+            return getView(id);
+        }
         View v = itemView.findViewById(id);
         return v;
     }
 
+    /**
+     * 从缓存获取控件，构造之后才添加到itemView中的控件在第一次获取时查找并缓存
+     *
+     * @param id
+     */
+    @SuppressWarnings("unchecked")
+    public <V extends View> V getView(int id) {
+        View view = mViews.get(id);
+        if (view == null) {
+            view = itemView.findViewById(id);
+            if (view != null) {
+                mViews.put(id, view);
+            }
+        }
+        return (V) view;
+    }
+
+    public TextView getTextView(int id) {
+        return getView(id);
+    }
+
+    public ImageView getImageView(int id) {
+        return getView(id);
+    }
+
+    public BaseViewHolder setText(int id, CharSequence text) {
+        TextView textView = getView(id);
+        textView.setText(text);
+        return this;
+    }
+
+    public BaseViewHolder setText(int id, int resId) {
+        TextView textView = getView(id);
+        textView.setText(resId);
+        return this;
+    }
+
+    public BaseViewHolder setTextColor(int id, int color) {
+        TextView textView = getView(id);
+        textView.setTextColor(color);
+        return this;
+    }
+
+    public BaseViewHolder setImageResource(int id, int resId) {
+        ImageView imageView = getView(id);
+        imageView.setImageResource(resId);
+        return this;
+    }
+
+    public BaseViewHolder setVisibility(int id, int visibility) {
+        getView(id).setVisibility(visibility);
+        return this;
+    }
+
+    public BaseViewHolder setOnClickListener(int id, View.OnClickListener listener) {
+        getView(id).setOnClickListener(listener);
+        return this;
+    }
+
 }
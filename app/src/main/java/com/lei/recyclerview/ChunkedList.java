@@ -0,0 +1,330 @@
+package com.lei.recyclerview;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 分块存储的列表，可作为{@link BaseRecyclerAdapter}的数据容器
+ * <p/>
+ * 数据按不超过{@link #CHUNK_CAPACITY}条分块保存，中间位置的插入、删除只移动所在块内的元素，
+ * 各块的起始位置在下一次按位置访问时才重新计算。大列表中间增删的开销从ArrayList的O(n)
+ * 降到O(n / CHUNK_CAPACITY + CHUNK_CAPACITY)，按位置访问为O(log(n / CHUNK_CAPACITY))，
+ * 连续访问同一块时为O(1)。
+ *
+ * @param <T>
+ * @author lei
+ */
+public class ChunkedList<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int CHUNK_CAPACITY = 256;
+
+    private static final class Chunk {
+        final Object[] items = new Object[CHUNK_CAPACITY];
+        int size;
+    }
+
+    private final ArrayList<Chunk> mChunks = new ArrayList<>();
+
+    /**
+     * 每块第一个元素的位置，[0, mValidStarts)区间内有效
+     */
+    private int[] mStarts = new int[8];
+    private int mValidStarts = 0;
+
+    private int mSize = 0;
+
+    /**
+     * 上一次访问的块，连续绑定相邻位置时避免重复查找
+     */
+    private int mCursor = 0;
+
+    public ChunkedList() {
+    }
+
+    public ChunkedList(Collection<? extends T> c) {
+        addAll(c);
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkElementIndex(index);
+        int c = findChunk(index);
+        return (T) mChunks.get(c).items[index - mStarts[c]];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkElementIndex(index);
+        int c = findChunk(index);
+        Object[] items = mChunks.get(c).items;
+        int offset = index - mStarts[c];
+        T old = (T) items[offset];
+        items[offset] = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        checkPositionIndex(index);
+        int c;
+        int offset;
+        if (mChunks.isEmpty()) {
+            mChunks.add(new Chunk());
+            c = 0;
+            offset = 0;
+        } else if (index == mSize) {
+            c = mChunks.size() - 1;
+            offset = mChunks.get(c).size;
+        } else {
+            c = findChunk(index);
+            offset = index - mStarts[c];
+        }
+        final int firstChanged = c + 1;
+        Chunk chunk = mChunks.get(c);
+        if (chunk.size == CHUNK_CAPACITY) {
+            Chunk next;
+            if (offset == CHUNK_CAPACITY) {
+                // 追加到满块末尾时直接开新块，顺序追加的块都是满的
+                next = new Chunk();
+            } else {
+                next = split(chunk);
+            }
+            mChunks.add(c + 1, next);
+            if (offset >= chunk.size) {
+                offset -= chunk.size;
+                chunk = next;
+                c++;
+            }
+        }
+        System.arraycopy(chunk.items, offset, chunk.items, offset + 1, chunk.size - offset);
+        chunk.items[offset] = element;
+        chunk.size++;
+        mSize++;
+        modCount++;
+        invalidateStarts(firstChanged);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        checkElementIndex(index);
+        int c = findChunk(index);
+        Chunk chunk = mChunks.get(c);
+        int offset = index - mStarts[c];
+        T old = (T) chunk.items[offset];
+        System.arraycopy(chunk.items, offset + 1, chunk.items, offset, chunk.size - offset - 1);
+        chunk.items[--chunk.size] = null;
+        mSize--;
+        modCount++;
+        invalidateStarts(c + 1);
+        compact(c);
+        return old;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addAll(int index, Collection<? extends T> c) {
+        checkPositionIndex(index);
+        Object[] values = c.toArray();
+        int count = values.length;
+        if (count == 0) {
+            return false;
+        }
+        if (count <= CHUNK_CAPACITY / 4) {
+            for (int i = 0; i < count; i++) {
+                add(index + i, (T) values[i]);
+            }
+            return true;
+        }
+        // 在index处把所在块一分为二，新数据以满块的形式插入中间
+        int chunkIndex;
+        if (index == mSize) {
+            chunkIndex = mChunks.size();
+        } else {
+            int ci = findChunk(index);
+            int offset = index - mStarts[ci];
+            if (offset == 0) {
+                chunkIndex = ci;
+            } else {
+                Chunk chunk = mChunks.get(ci);
+                Chunk tail = new Chunk();
+                tail.size = chunk.size - offset;
+                System.arraycopy(chunk.items, offset, tail.items, 0, tail.size);
+                clearItems(chunk, offset, chunk.size);
+                chunk.size = offset;
+                mChunks.add(ci + 1, tail);
+                chunkIndex = ci + 1;
+            }
+        }
+        List<Chunk> inserted = new ArrayList<>(count / CHUNK_CAPACITY + 1);
+        for (int from = 0; from < count; from += CHUNK_CAPACITY) {
+            Chunk chunk = new Chunk();
+            chunk.size = Math.min(CHUNK_CAPACITY, count - from);
+            System.arraycopy(values, from, chunk.items, 0, chunk.size);
+            inserted.add(chunk);
+        }
+        mChunks.addAll(chunkIndex, inserted);
+        mSize += count;
+        modCount++;
+        invalidateStarts(Math.max(chunkIndex - 1, 0));
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        return addAll(mSize, c);
+    }
+
+    @Override
+    public void clear() {
+        mChunks.clear();
+        mSize = 0;
+        mCursor = 0;
+        modCount++;
+        invalidateStarts(0);
+    }
+
+    /**
+     * subList(from, to).clear()会调用到这里，整块丢弃而不是逐个删除
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        int c = findChunk(fromIndex);
+        int offset = fromIndex - mStarts[c];
+        int remaining = toIndex - fromIndex;
+        final int firstTouched = c;
+        while (remaining > 0) {
+            Chunk chunk = mChunks.get(c);
+            int n = Math.min(chunk.size - offset, remaining);
+            if (n == chunk.size) {
+                mChunks.remove(c);
+            } else {
+                System.arraycopy(chunk.items, offset + n, chunk.items, offset, chunk.size - offset - n);
+                clearItems(chunk, chunk.size - n, chunk.size);
+                chunk.size -= n;
+                c++;
+            }
+            remaining -= n;
+            offset = 0;
+        }
+        mSize -= toIndex - fromIndex;
+        modCount++;
+        invalidateStarts(firstTouched);
+        if (firstTouched < mChunks.size()) {
+            compact(firstTouched);
+        }
+    }
+
+    private int findChunk(int index) {
+        int cursor = mCursor;
+        if (cursor < mValidStarts && cursor < mChunks.size()) {
+            int start = mStarts[cursor];
+            if (index >= start && index < start + mChunks.get(cursor).size) {
+                return cursor;
+            }
+        }
+        ensureStarts();
+        int lo = 0;
+        int hi = mChunks.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (mStarts[mid] <= index) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        mCursor = lo;
+        return lo;
+    }
+
+    private void ensureStarts() {
+        final int chunkCount = mChunks.size();
+        if (mValidStarts >= chunkCount) {
+            return;
+        }
+        if (mStarts.length < chunkCount) {
+            int[] starts = new int[Math.max(chunkCount, mStarts.length * 2)];
+            System.arraycopy(mStarts, 0, starts, 0, mValidStarts);
+            mStarts = starts;
+        }
+        int i = mValidStarts;
+        int start = i == 0 ? 0 : mStarts[i - 1] + mChunks.get(i - 1).size;
+        for (; i < chunkCount; i++) {
+            mStarts[i] = start;
+            start += mChunks.get(i).size;
+        }
+        mValidStarts = chunkCount;
+    }
+
+    private void invalidateStarts(int chunkIndex) {
+        if (chunkIndex < mValidStarts) {
+            mValidStarts = chunkIndex;
+        }
+    }
+
+    /**
+     * 把后半部分移到新块
+     */
+    private static Chunk split(Chunk chunk) {
+        Chunk next = new Chunk();
+        int half = chunk.size / 2;
+        next.size = chunk.size - half;
+        System.arraycopy(chunk.items, half, next.items, 0, next.size);
+        clearItems(chunk, half, chunk.size);
+        chunk.size = half;
+        return next;
+    }
+
+    /**
+     * 删除空块，过小的块与后一块合并，保证块数不会因反复删除而退化
+     */
+    private void compact(int c) {
+        Chunk chunk = mChunks.get(c);
+        if (chunk.size == 0) {
+            mChunks.remove(c);
+            invalidateStarts(c);
+            return;
+        }
+        if (chunk.size < CHUNK_CAPACITY / 4 && c + 1 < mChunks.size()) {
+            Chunk next = mChunks.get(c + 1);
+            if (chunk.size + next.size <= CHUNK_CAPACITY / 2) {
+                System.arraycopy(next.items, 0, chunk.items, chunk.size, next.size);
+                chunk.size += next.size;
+                mChunks.remove(c + 1);
+                invalidateStarts(c + 1);
+            }
+        }
+    }
+
+    private static void clearItems(Chunk chunk, int from, int to) {
+        for (int i = from; i < to; i++) {
+            chunk.items[i] = null;
+        }
+    }
+
+    private void checkElementIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + mSize);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > mSize) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + mSize);
+        }
+    }
+}
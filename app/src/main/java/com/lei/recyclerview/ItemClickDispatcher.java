@@ -0,0 +1,273 @@
+package com.lei.recyclerview;
+
+import android.os.SystemClock;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.core.view.GestureDetectorCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * RecyclerView级别的点击分发，所有item共用一个OnItemTouchListener和GestureDetector，
+ * ViewHolder不再各自创建点击监听，重新绑定时也不需要重新设置
+ * <p/>
+ * 回调的位置是{@link RecyclerView.ViewHolder#getAdapterPosition()}，数据变化尚未布局时
+ * 也是正确的位置，取不到位置（item正在被移除）时不回调。
+ * 点击落在item内部可点击的子控件上时由子控件自己处理，这里不再分发。
+ *
+ * @author lei
+ */
+public class ItemClickDispatcher {
+
+    public interface OnItemLongClickListener {
+        void onItemLongClick(View view, int position);
+    }
+
+    public interface OnItemDoubleTapListener {
+        void onItemDoubleTap(View view, int position);
+    }
+
+    private RecyclerView mRecyclerView;
+    private GestureDetectorCompat mGestureDetector;
+
+    private BaseViewHolder.OnItemClickListener mClickListener;
+    private OnItemLongClickListener mLongClickListener;
+    private OnItemDoubleTapListener mDoubleTapListener;
+
+    /**
+     * 两次分发之间的最小间隔，防止连点重复打开页面
+     */
+    private long mDebounceMillis = 0;
+    private long mLastDispatchTime = 0;
+
+    /**
+     * 按下时列表仍在滚动，这次触摸只是让列表停下，不算点击
+     */
+    private boolean mIgnoreGesture;
+    private long mDownTime;
+
+    private final RecyclerView.OnItemTouchListener mTouchListener = new RecyclerView.SimpleOnItemTouchListener() {
+        @Override
+        public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+            if (e.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                mIgnoreGesture = rv.getScrollState() != RecyclerView.SCROLL_STATE_IDLE;
+                mDownTime = e.getDownTime();
+            }
+            mGestureDetector.onTouchEvent(e);
+            return false;
+        }
+    };
+
+    /**
+     * RecyclerView开始拖动后后续事件不再经过OnItemTouchListener，补一个CANCEL结束手势，避免误触发长按
+     */
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            if (newState == RecyclerView.SCROLL_STATE_DRAGGING && mGestureDetector != null) {
+                long now = SystemClock.uptimeMillis();
+                MotionEvent cancel = MotionEvent.obtain(mDownTime, now, MotionEvent.ACTION_CANCEL, 0, 0, 0);
+                mGestureDetector.onTouchEvent(cancel);
+                cancel.recycle();
+                mIgnoreGesture = true;
+            }
+        }
+    };
+
+    private final GestureDetector.SimpleOnGestureListener mGestureListener = new GestureDetector.SimpleOnGestureListener() {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            return true;
+        }
+
+        @Override
+        public boolean onSingleTapUp(MotionEvent e) {
+            // 没有双击监听时不必等待双击超时
+            if (mDoubleTapListener == null) {
+                dispatchClick(e);
+            }
+            return false;
+        }
+
+        @Override
+        public boolean onSingleTapConfirmed(MotionEvent e) {
+            if (mDoubleTapListener != null) {
+                dispatchClick(e);
+            }
+            return false;
+        }
+
+        @Override
+        public boolean onDoubleTap(MotionEvent e) {
+            if (mDoubleTapListener == null) {
+                return false;
+            }
+            View child = findItemView(e);
+            int position = getPosition(child);
+            if (position != RecyclerView.NO_POSITION && acceptDispatch()) {
+                mDoubleTapListener.onItemDoubleTap(child, position);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void onLongPress(MotionEvent e) {
+            if (mLongClickListener == null) {
+                return;
+            }
+            View child = findItemView(e);
+            int position = getPosition(child);
+            if (position != RecyclerView.NO_POSITION && acceptDispatch()) {
+                mLongClickListener.onItemLongClick(child, position);
+            }
+        }
+    };
+
+    public void attachToRecyclerView(RecyclerView recyclerView) {
+        if (mRecyclerView == recyclerView) {
+            return;
+        }
+        detachFromRecyclerView();
+        mRecyclerView = recyclerView;
+        if (recyclerView == null) {
+            return;
+        }
+        mGestureDetector = new GestureDetectorCompat(recyclerView.getContext(), mGestureListener);
+        // 没有双击监听时不注册，否则快速的第二次点击会被当成双击吞掉
+        mGestureDetector.setOnDoubleTapListener(mDoubleTapListener != null ? mGestureListener : null);
+        mGestureDetector.setIsLongpressEnabled(mLongClickListener != null);
+        recyclerView.addOnItemTouchListener(mTouchListener);
+        recyclerView.addOnScrollListener(mScrollListener);
+    }
+
+    public void detachFromRecyclerView() {
+        if (mRecyclerView != null) {
+            mRecyclerView.removeOnItemTouchListener(mTouchListener);
+            mRecyclerView.removeOnScrollListener(mScrollListener);
+            mRecyclerView = null;
+            mGestureDetector = null;
+        }
+    }
+
+    public void setOnItemClickListener(BaseViewHolder.OnItemClickListener listener) {
+        this.mClickListener = listener;
+    }
+
+    public void setOnItemLongClickListener(OnItemLongClickListener listener) {
+        this.mLongClickListener = listener;
+        if (mGestureDetector != null) {
+            mGestureDetector.setIsLongpressEnabled(listener != null);
+        }
+    }
+
+    /**
+     * 设置双击监听后单击要等双击超时才会回调
+     *
+     * @param listener
+     */
+    public void setOnItemDoubleTapListener(OnItemDoubleTapListener listener) {
+        this.mDoubleTapListener = listener;
+        if (mGestureDetector != null) {
+            mGestureDetector.setOnDoubleTapListener(listener != null ? mGestureListener : null);
+        }
+    }
+
+    /**
+     * @param debounceMillis 两次分发之间的最小间隔，0表示不限制
+     */
+    public void setDebounceMillis(long debounceMillis) {
+        this.mDebounceMillis = Math.max(0, debounceMillis);
+    }
+
+    /**
+     * 是否分发该item的事件，子类可以过滤掉footer等辅助item
+     *
+     * @param holder
+     */
+    protected boolean shouldDispatch(RecyclerView.ViewHolder holder) {
+        return true;
+    }
+
+    /**
+     * 回调给监听的位置，适配器外面包装了header时子类可以换算成内容中的位置
+     *
+     * @param holder
+     */
+    protected int getItemPosition(RecyclerView.ViewHolder holder) {
+        return holder.getAdapterPosition();
+    }
+
+    private void dispatchClick(MotionEvent e) {
+        if (mClickListener == null) {
+            return;
+        }
+        View child = findItemView(e);
+        int position = getPosition(child);
+        if (position != RecyclerView.NO_POSITION && acceptDispatch()) {
+            mClickListener.onItemClick(child, position);
+        }
+    }
+
+    private boolean acceptDispatch() {
+        long now = SystemClock.uptimeMillis();
+        if (mDebounceMillis > 0 && now - mLastDispatchTime < mDebounceMillis) {
+            return false;
+        }
+        mLastDispatchTime = now;
+        return true;
+    }
+
+    private View findItemView(MotionEvent e) {
+        if (mIgnoreGesture || mRecyclerView == null) {
+            return null;
+        }
+        View child = mRecyclerView.findChildViewUnder(e.getX(), e.getY());
+        if (child == null) {
+            return null;
+        }
+        float x = e.getX() - child.getLeft() - child.getTranslationX();
+        float y = e.getY() - child.getTop() - child.getTranslationY();
+        if (child instanceof ViewGroup && hasClickableChild((ViewGroup) child, x, y)) {
+            return null;
+        }
+        return child;
+    }
+
+    private int getPosition(View child) {
+        if (child == null) {
+            return RecyclerView.NO_POSITION;
+        }
+        RecyclerView.ViewHolder holder = mRecyclerView.getChildViewHolder(child);
+        if (holder == null || !shouldDispatch(holder)) {
+            return RecyclerView.NO_POSITION;
+        }
+        return getItemPosition(holder);
+    }
+
+    /**
+     * (x, y)为parent内的坐标
+     */
+    private static boolean hasClickableChild(ViewGroup parent, float x, float y) {
+        for (int i = parent.getChildCount() - 1; i >= 0; i--) {
+            View child = parent.getChildAt(i);
+            if (child.getVisibility() != View.VISIBLE) {
+                continue;
+            }
+            float localX = x - child.getLeft() - child.getTranslationX();
+            float localY = y - child.getTop() - child.getTranslationY();
+            if (localX < 0 || localY < 0 || localX >= child.getWidth() || localY >= child.getHeight()) {
+                continue;
+            }
+            if (child.isClickable() || child.isLongClickable()) {
+                return true;
+            }
+            if (child instanceof ViewGroup && hasClickableChild((ViewGroup) child, localX, localY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
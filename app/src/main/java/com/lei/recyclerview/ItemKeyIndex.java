@@ -0,0 +1,164 @@
+package com.lei.recyclerview;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.lei.recyclerview.paging.PagedList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * key到列表位置的索引
+ * <p/>
+ * 修改列表时只记录失效起点，查询时再补齐失效部分，连续修改的开销被合并到下一次查询。
+ * 索引有效时查询是O(1)；在position处增删后的第一次查询要重新索引[position, size)，
+ * 是O(size - position)，所以在头部附近频繁插入并且每次都查询时接近O(n)，
+ * 多次修改之间只查询一次时按修改次数均摊。
+ * 同时为每个key分配稳定的id，供{@link RecyclerView.Adapter#getItemId(int)}使用，
+ * id从0开始递增；null数据（如{@link PagedList}未加载的位置）没有key，按位置分配负数id。
+ * 对{@link PagedList}只索引已加载的页，不会触发加载。
+ */
+class ItemKeyIndex<T> {
+
+    private final ItemKeyProvider<T> mKeyProvider;
+
+    private final Map<Object, Integer> mPositions = new HashMap<>();
+
+    private Map<Object, Long> mIds = new HashMap<>();
+
+    private long mNextId = 0;
+
+    /**
+     * [0, mValidCount)区间内的位置是准确的
+     */
+    private int mValidCount = 0;
+
+    ItemKeyIndex(ItemKeyProvider<T> keyProvider) {
+        mKeyProvider = keyProvider;
+    }
+
+    Object getKey(T item) {
+        return item == null ? null : mKeyProvider.getKey(item);
+    }
+
+    /**
+     * position及之后的位置失效
+     */
+    void invalidateFrom(int position) {
+        if (position < mValidCount) {
+            mValidCount = Math.max(position, 0);
+        }
+    }
+
+    /**
+     * 在[position, position + count)被删除前调用
+     */
+    void removeKeys(List<T> list, int position, int count) {
+        for (int i = position; i < position + count; i++) {
+            Object key = getKey(peek(list, i));
+            if (key != null) {
+                mPositions.remove(key);
+                mIds.remove(key);
+            }
+        }
+        invalidateFrom(position);
+    }
+
+    /**
+     * position处的oldItem被替换为newItem后调用，key不变时索引和id都保持有效
+     */
+    void onReplaced(T oldItem, T newItem, int position) {
+        Object oldKey = getKey(oldItem);
+        Object newKey = getKey(newItem);
+        if (oldKey == null ? newKey == null : oldKey.equals(newKey)) {
+            return;
+        }
+        if (oldKey != null) {
+            mPositions.remove(oldKey);
+            mIds.remove(oldKey);
+        }
+        invalidateFrom(position);
+    }
+
+    /**
+     * 列表被整体替换后调用，只保留仍在新列表中的key的id，避免id表随刷新无限增长
+     */
+    void reset(List<T> list) {
+        mPositions.clear();
+        mValidCount = 0;
+        Map<Object, Long> ids = new HashMap<>();
+        for (int i = 0, size = list.size(); i < size; i++) {
+            Object key = getKey(peek(list, i));
+            if (key != null) {
+                Long id = mIds.get(key);
+                if (id != null) {
+                    ids.put(key, id);
+                }
+            }
+        }
+        mIds = ids;
+    }
+
+    int indexOf(List<T> list, Object key) {
+        if (key == null) {
+            return RecyclerView.NO_POSITION;
+        }
+        ensureIndex(list);
+        Integer position = mPositions.get(key);
+        if (position == null) {
+            return RecyclerView.NO_POSITION;
+        }
+        if (position < list.size()) {
+            T item = peek(list, position);
+            if (key.equals(getKey(item))) {
+                return position;
+            }
+            if (item == null && list instanceof PagedList) {
+                // 所在页已被丢弃
+                mPositions.remove(key);
+                return RecyclerView.NO_POSITION;
+            }
+        }
+        // 列表绕过适配器被修改过，重建一次
+        reset(list);
+        ensureIndex(list);
+        position = mPositions.get(key);
+        return position == null ? RecyclerView.NO_POSITION : position;
+    }
+
+    /**
+     * @param position 数据为null时用于分配占位id，各占位的id互不相同，也不会和有key的数据冲突
+     */
+    long getStableId(T item, int position) {
+        Object key = getKey(item);
+        if (key == null) {
+            // NO_ID是-1，从-2开始
+            return -2L - position;
+        }
+        Long id = mIds.get(key);
+        if (id == null) {
+            id = mNextId++;
+            mIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * 分页列表只读取已加载的页，未加载的位置返回null
+     */
+    private static <T> T peek(List<T> list, int position) {
+        return list instanceof PagedList ? ((PagedList<T>) list).peek(position) : list.get(position);
+    }
+
+    private void ensureIndex(List<T> list) {
+        final int size = list.size();
+        for (int i = mValidCount; i < size; i++) {
+            Object key = getKey(peek(list, i));
+            if (key != null) {
+                mPositions.put(key, i);
+            }
+        }
+        mValidCount = size;
+    }
+}
@@ -0,0 +1,14 @@
+package com.lei.recyclerview;
+
+/**
+ * 从列表项中提取唯一标识
+ * <p/>
+ * 返回的key需要正确实现equals和hashCode，同一列表中不能重复
+ *
+ * @param <T>
+ */
+public interface ItemKeyProvider<T> {
+
+    Object getKey(T item);
+
+}
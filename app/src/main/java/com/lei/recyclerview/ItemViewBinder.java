@@ -0,0 +1,47 @@
+package com.lei.recyclerview;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * 一种数据类型对应的视图创建与绑定，通过{@link BaseRecyclerAdapter#register(Class, ItemViewBinder)}注册，
+ * 适配器据此自动分配viewType
+ *
+ * @param <T>  数据类型
+ * @param <VH>
+ * @author lei
+ */
+public abstract class ItemViewBinder<T, VH extends BaseViewHolder> {
+
+    /**
+     * 第一次注册时分配，之后在所有适配器中保持不变
+     */
+    int mViewType = RecyclerView.INVALID_TYPE;
+
+    protected abstract VH onCreateViewHolder(LayoutInflater inflater, ViewGroup parent);
+
+    protected abstract void onBindViewHolder(VH holder, T item, int position);
+
+    /**
+     * 局部刷新，只更新payloads描述的变化
+     *
+     * @param payloads 非空
+     * @return 是否已处理，返回false时执行完整绑定
+     */
+    protected boolean onBindPayloads(VH holder, T item, int position, List<Object> payloads) {
+        return false;
+    }
+
+    /**
+     * 该类型在RecyclerView回收池中最多缓存的holder个数
+     *
+     * @return 0表示根据同屏出现的最大数量自动调整
+     */
+    public int getMaxRecycledViews() {
+        return 0;
+    }
+}
@@ -2,7 +2,6 @@ package com.lei.recyclerview;
 
 import android.content.Context;
 import android.graphics.Color;
-import android.os.AsyncTask;
 import androidx.appcompat.app.AppCompatActivity;
 import android.os.Bundle;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -14,19 +13,20 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import com.lei.recyclerview.divider.ItemDividerDecoration;
-import com.lei.recyclerview.widget.PullCallback;
+import com.lei.recyclerview.widget.AsyncPullCallback;
+import com.lei.recyclerview.widget.PullResult;
 import com.lei.recyclerview.widget.PullToLoadView;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class MainActivity extends AppCompatActivity implements PullCallback {
+public class MainActivity extends AppCompatActivity implements AsyncPullCallback<String> {
 
     PullToLoadView loadView;
     ListAdapter adapter;
 
     List<String> list = new ArrayList<>();
-    int j = 0;
+    volatile int j = 0;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -35,7 +35,8 @@ public class MainActivity extends AppCompatActivity implements PullCallback {
         loadView = (PullToLoadView) findViewById(R.id.list);
         loadView.setLayoutManager(new LinearLayoutManager(this));
         loadView.addItemDecoration(new ItemDividerDecoration.Builder(this).size(1).color(Color.BLUE).build());
-        loadView.setPullCallback(this);
+        loadView.setAsyncPullCallback(this);
+        loadView.setLoadedAllInfo("已经没有更多数据了...");
         for (int i = 0; i < 10; i++) {
             list.add("测试");
         }
@@ -45,62 +46,25 @@ public class MainActivity extends AppCompatActivity implements PullCallback {
     }
 
     @Override
-    public void onLoadMore() {
-        new AsyncTask<Void, Void, Void>() {
-            @Override
-            protected Void doInBackground(Void... params) {
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                return null;
-            }
-
-            @Override
-            protected void onPostExecute(Void aVoid) {
-                List<String> list = new ArrayList<>();
-                for (int i = 0; i < 10; i++) {
-                    list.add("测试");
-                }
-                j++;
-                if (j < 3) {
-                    loadView.hasMoreItems(true);
-                } else if (j == 3) {
-                    loadView.hasMoreItems(false);
-                    loadView.hasLoadedAllItems("已经没有更多数据了...");
-                }
-                loadView.setComplete();
-                adapter.refresh(list, true);
-            }
-        }.execute();
+    public PullResult<String> onLoadMore() throws Exception {
+        Thread.sleep(2000);//模拟网络请求
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            list.add("测试");
+        }
+        j++;
+        return PullResult.of(list, j < 3);
     }
 
     @Override
-    public void onRefresh() {
-        new AsyncTask<Void, Void, Void>() {
-            @Override
-            protected Void doInBackground(Void... params) {
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                return null;
-            }
-
-            @Override
-            protected void onPostExecute(Void aVoid) {
-                List<String> list = new ArrayList<>();
-                for (int i = 0; i < 10; i++) {
-                    list.add("测试");
-                }
-                j = 0;
-                loadView.hasMoreItems(true);
-                loadView.setComplete();
-                adapter.refresh(list);
-            }
-        }.execute();
+    public PullResult<String> onRefresh() throws Exception {
+        Thread.sleep(2000);//模拟网络请求
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            list.add("测试");
+        }
+        j = 0;
+        return PullResult.of(list, true);
     }
 
     class ListAdapter extends BaseRecyclerAdapter {
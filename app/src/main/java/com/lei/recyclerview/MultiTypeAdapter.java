@@ -0,0 +1,33 @@
+package com.lei.recyclerview;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+import java.util.List;
+
+/**
+ * 完全由{@link ItemViewBinder}驱动的适配器，每种数据类型注册一个绑定器即可，不需要再写viewType分支
+ *
+ * @param <T>
+ * @author lei
+ */
+public class MultiTypeAdapter<T> extends BaseRecyclerAdapter<T> {
+
+    public MultiTypeAdapter(Context context) {
+        super(context);
+    }
+
+    public MultiTypeAdapter(Context context, List<T> list) {
+        super(context, list);
+    }
+
+    @Override
+    public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        return createBinderViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(BaseViewHolder holder, int position) {
+        bindBinderViewHolder(holder, position);
+    }
+}
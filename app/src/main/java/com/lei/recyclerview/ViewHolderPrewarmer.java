@@ -0,0 +1,133 @@
+package com.lei.recyclerview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 提前创建ViewHolder放入RecyclerView的回收池，首次滑动时不再在主线程inflate
+ * <p/>
+ * 后台模式在单独线程创建，要求onCreateViewHolder不依赖主线程（不创建Handler、不访问主线程状态）；
+ * 否则在主线程空闲时逐个创建，不占用有帧绘制的时间。
+ */
+class ViewHolderPrewarmer {
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private static ExecutorService sInflateExecutor;
+
+    private final RecyclerView.Adapter<? extends RecyclerView.ViewHolder> mAdapter;
+
+    /**
+     * 预创建、尚未被使用的holder，弱引用以免被回收池丢弃的holder泄漏
+     */
+    private final Set<RecyclerView.ViewHolder> mPrewarmedHolders =
+            Collections.newSetFromMap(new WeakHashMap<RecyclerView.ViewHolder, Boolean>());
+
+    private int mGeneration;
+    private int mPrewarmedCount;
+    private int mHitCount;
+
+    ViewHolderPrewarmer(RecyclerView.Adapter<? extends RecyclerView.ViewHolder> adapter) {
+        mAdapter = adapter;
+    }
+
+    /**
+     * 调用方需保证回收池对该viewType的容量足够放下count个holder
+     */
+    void prewarm(final RecyclerView recyclerView, final int viewType, final int count, boolean background) {
+        if (count <= 0) {
+            return;
+        }
+        final RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        final int generation = mGeneration;
+        if (background) {
+            getInflateExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        final RecyclerView.ViewHolder holder = mAdapter.createViewHolder(recyclerView, viewType);
+                        sMainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (generation == mGeneration) {
+                                    putRecycledView(pool, holder);
+                                }
+                            }
+                        });
+                    }
+                }
+            });
+        } else {
+            Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                int mRemaining = count;
+
+                @Override
+                public boolean queueIdle() {
+                    if (generation != mGeneration) {
+                        return false;
+                    }
+                    // 回收池已满时后面的也放不进去，不再创建
+                    return putRecycledView(pool, mAdapter.createViewHolder(recyclerView, viewType))
+                            && --mRemaining > 0;
+                }
+            });
+        }
+    }
+
+    /**
+     * 该类型已满时回收池会直接丢弃holder，只统计实际放入的
+     *
+     * @return 是否放入了回收池
+     */
+    private boolean putRecycledView(RecyclerView.RecycledViewPool pool, RecyclerView.ViewHolder holder) {
+        final int viewType = holder.getItemViewType();
+        final int before = pool.getRecycledViewCount(viewType);
+        pool.putRecycledView(holder);
+        if (pool.getRecycledViewCount(viewType) > before) {
+            mPrewarmedHolders.add(holder);
+            mPrewarmedCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * holder显示到屏幕上时调用，统计预创建省下的onCreateViewHolder次数
+     */
+    void onViewAttachedToWindow(RecyclerView.ViewHolder holder) {
+        if (!mPrewarmedHolders.isEmpty() && mPrewarmedHolders.remove(holder)) {
+            mHitCount++;
+        }
+    }
+
+    /**
+     * 放弃尚未完成的预创建
+     */
+    void cancel() {
+        mGeneration++;
+        mPrewarmedHolders.clear();
+    }
+
+    int getPrewarmedCount() {
+        return mPrewarmedCount;
+    }
+
+    int getHitCount() {
+        return mHitCount;
+    }
+
+    private static synchronized ExecutorService getInflateExecutor() {
+        if (sInflateExecutor == null) {
+            sInflateExecutor = Executors.newSingleThreadExecutor();
+        }
+        return sInflateExecutor;
+    }
+}
@@ -0,0 +1,29 @@
+package com.lei.recyclerview.paging;
+
+import java.util.List;
+
+/**
+ * 分页数据源
+ *
+ * @param <T>
+ * @author lei
+ */
+public interface PageSource<T> {
+
+    /**
+     * 加载一页数据，可以在任意线程回调，结果总是在主线程生效。
+     * 除最后一页外每页都必须返回pageSize条数据，不足一页即视为最后一页。
+     *
+     * @param page     页码，从0开始
+     * @param pageSize 每页条数
+     * @param callback
+     */
+    void loadPage(int page, int pageSize, PageCallback<T> callback);
+
+    interface PageCallback<T> {
+
+        void onResult(List<T> items, boolean hasMore);
+
+        void onError(Throwable error);
+    }
+}
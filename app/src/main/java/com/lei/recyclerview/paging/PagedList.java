@@ -0,0 +1,268 @@
+package com.lei.recyclerview.paging;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * 按页加载、只在内存中保留可见区域附近若干页的只读列表
+ * <p/>
+ * 远离可见区域的页会被丢弃，对应位置作为占位返回null，再次滚动到附近时重新加载。
+ * 内存中只保留可见页及其前后各prefetchPages + 1页，条数不随浏览时长增长。
+ * {@link #get(int)}会加载缺失的页，只应在绑定时调用；遍历、复制整个列表会加载所有页，
+ * 需要读取时用{@link #peek(int)}。只能在主线程访问。
+ *
+ * @param <T>
+ * @author lei
+ */
+public class PagedList<T> extends AbstractList<T> {
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private final PageSource<T> mSource;
+    private final int mPageSize;
+    private final int mPrefetchPages;
+
+    private final SparseArray<List<T>> mPages = new SparseArray<>();
+    private final SparseBooleanArray mLoadingPages = new SparseBooleanArray();
+
+    private ListUpdateCallback mUpdateCallback;
+
+    /**
+     * 已知的页数，即size()覆盖的页数
+     */
+    private int mPageCount = 0;
+    private int mSize = 0;
+    private boolean mHasMore = true;
+    private int mGeneration = 0;
+
+    /**
+     * 最近一次loadAround确定的保留范围，加载完成时已经移出范围的页直接丢弃
+     */
+    private int mKeepFromPage;
+    private int mKeepToPage;
+
+    /**
+     * @param source
+     * @param pageSize      每页条数
+     * @param prefetchPages 可见区域前后各预加载、保留的页数
+     */
+    public PagedList(PageSource<T> source, int pageSize, int prefetchPages) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        mSource = source;
+        mPageSize = pageSize;
+        mPrefetchPages = Math.max(prefetchPages, 0);
+        resetKeepRange();
+    }
+
+    public PagedList(PageSource<T> source, int pageSize) {
+        this(source, pageSize, 1);
+    }
+
+    /**
+     * 数据变化的通知目标，一般由适配器设置
+     *
+     * @param updateCallback
+     */
+    public void setUpdateCallback(ListUpdateCallback updateCallback) {
+        this.mUpdateCallback = updateCallback;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 返回position处的数据，所在页未加载时返回null并开始加载该页
+     */
+    @Override
+    public T get(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("position: " + position + ", size: " + mSize);
+        }
+        final int page = position / mPageSize;
+        List<T> items = mPages.get(page);
+        if (items == null) {
+            loadPage(page);
+            return null;
+        }
+        final int index = position % mPageSize;
+        return index < items.size() ? items.get(index) : null;
+    }
+
+    /**
+     * 返回position处已加载的数据，所在页未加载时返回null，不会触发加载
+     */
+    public T peek(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("position: " + position + ", size: " + mSize);
+        }
+        List<T> items = mPages.get(position / mPageSize);
+        if (items == null) {
+            return null;
+        }
+        final int index = position % mPageSize;
+        return index < items.size() ? items.get(index) : null;
+    }
+
+    public boolean isPlaceholder(int position) {
+        return mPages.get(position / mPageSize) == null;
+    }
+
+    public boolean hasMore() {
+        return mHasMore;
+    }
+
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    /**
+     * 当前保留在内存中的页数
+     */
+    public int getLoadedPageCount() {
+        return mPages.size();
+    }
+
+    /**
+     * 可见区域变化时调用：加载窗口内缺失的页，丢弃窗口外的页，接近末尾时加载下一页
+     *
+     * @param firstVisible 第一个可见位置
+     * @param lastVisible  最后一个可见位置
+     */
+    public void loadAround(int firstVisible, int lastVisible) {
+        if (firstVisible < 0 || lastVisible < firstVisible) {
+            if (mPageCount > 0) {
+                return;
+            }
+            firstVisible = lastVisible = 0;
+        }
+        final int fromPage = Math.max(firstVisible / mPageSize - mPrefetchPages, 0);
+        final int toPage = lastVisible / mPageSize + mPrefetchPages;
+
+        // 多保留一页，避免在页边界来回滚动时反复丢弃、加载
+        mKeepFromPage = fromPage - 1;
+        mKeepToPage = toPage + 1;
+        for (int i = mPages.size() - 1; i >= 0; i--) {
+            int page = mPages.keyAt(i);
+            if (!isKept(page)) {
+                mPages.removeAt(i);
+            }
+        }
+
+        for (int page = fromPage; page <= toPage; page++) {
+            if (page < mPageCount) {
+                if (mPages.get(page) == null) {
+                    loadPage(page);
+                }
+            } else {
+                if (page == mPageCount && mHasMore) {
+                    loadPage(page);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * 丢弃全部数据，忽略所有未完成的加载
+     */
+    public void invalidate() {
+        mGeneration++;
+        mPages.clear();
+        mLoadingPages.clear();
+        int oldSize = mSize;
+        mPageCount = 0;
+        mSize = 0;
+        mHasMore = true;
+        resetKeepRange();
+        if (oldSize > 0 && mUpdateCallback != null) {
+            mUpdateCallback.onRemoved(0, oldSize);
+        }
+    }
+
+    private boolean isKept(int page) {
+        return page >= mKeepFromPage && page <= mKeepToPage;
+    }
+
+    /**
+     * 第一次loadAround之前按从头开始浏览计算
+     */
+    private void resetKeepRange() {
+        mKeepFromPage = 0;
+        mKeepToPage = mPrefetchPages + 1;
+    }
+
+    private void loadPage(final int page) {
+        if (mLoadingPages.get(page)) {
+            return;
+        }
+        mLoadingPages.put(page, true);
+        final int generation = mGeneration;
+        mSource.loadPage(page, mPageSize, new PageSource.PageCallback<T>() {
+            @Override
+            public void onResult(final List<T> items, final boolean hasMore) {
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            onPageLoaded(page, items, hasMore);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            // 下次loadAround时重试
+                            mLoadingPages.delete(page);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void onPageLoaded(int page, List<T> items, boolean hasMore) {
+        mLoadingPages.delete(page);
+        if (page < mPageCount) {
+            if (!isKept(page)) {
+                // 加载期间已经滚远，保留它会让内存中的页数随快速滚动增长
+                return;
+            }
+            mPages.put(page, items);
+            int start = page * mPageSize;
+            int count = Math.min(mSize - start, mPageSize);
+            if (mUpdateCallback != null && count > 0) {
+                mUpdateCallback.onChanged(start, count, null);
+            }
+        } else if (page == mPageCount) {
+            int count = items == null ? 0 : items.size();
+            mHasMore = hasMore && count >= mPageSize;
+            if (count == 0) {
+                return;
+            }
+            if (isKept(page)) {
+                mPages.put(page, items);
+            }
+            int start = mSize;
+            mPageCount++;
+            mSize += Math.min(count, mPageSize);
+            if (mUpdateCallback != null) {
+                mUpdateCallback.onInserted(start, mSize - start);
+            }
+        }
+    }
+}
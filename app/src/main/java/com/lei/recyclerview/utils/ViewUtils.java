@@ -3,103 +3,115 @@ package com.lei.recyclerview.utils;
 import androidx.recyclerview.widget.RecyclerView;
 import android.view.View;
 
+import com.lei.recyclerview.widget.RecyclerViewPositionHelper;
+
 /**
  * Created by dell on 2016/7/29.
  */
 public class ViewUtils {
 
+    /**
+     * Result of {@link #findCenterChild(RecyclerView, boolean, CenterChild)}, reuse one instance.
+     */
+    public static final class CenterChild {
+        public View view;
+        public int position = RecyclerView.NO_POSITION;
+        /**
+         * child center minus parent center along the axis, in pixels
+         */
+        public int distance;
+
+        void reset() {
+            view = null;
+            position = RecyclerView.NO_POSITION;
+            distance = 0;
+        }
+    }
+
+    /**
+     * Scratch result for the single-value helpers below, views are only touched on the main thread.
+     */
+    private static final CenterChild sCenterChild = new CenterChild();
+
+    /**
+     * Find the child whose decorated bounds contain the center of the RecyclerView, in parent layout
+     * coordinates, see {@link RecyclerViewPositionHelper#findCenterChild(RecyclerView, boolean, CenterChild)}.
+     *
+     * @param horizontal search along the X axis, otherwise the Y axis
+     * @param out        filled with the view, its adapter position and its signed distance from center
+     * @return false if no child contains the center, out is reset in that case
+     */
+    public static boolean findCenterChild(RecyclerView recyclerView, boolean horizontal, CenterChild out) {
+        return RecyclerViewPositionHelper.findCenterChild(recyclerView, horizontal, out);
+    }
+
+    private static int getStart(RecyclerView.LayoutManager layoutManager, View child, boolean horizontal) {
+        return horizontal ? layoutManager.getDecoratedLeft(child) : layoutManager.getDecoratedTop(child);
+    }
+
+    private static int getEnd(RecyclerView.LayoutManager layoutManager, View child, boolean horizontal) {
+        return horizontal ? layoutManager.getDecoratedRight(child) : layoutManager.getDecoratedBottom(child);
+    }
+
     /**
      * Get center child in X Axes
      */
     public static View getCenterXChild(RecyclerView recyclerView) {
-        int childCount = recyclerView.getChildCount();
-        if (childCount > 0) {
-            for (int i = 0; i < childCount; i++) {
-                View child = recyclerView.getChildAt(i);
-                if (isChildInCenterX(recyclerView, child)) {
-                    return child;
-                }
-            }
-        }
-        return null;
+        findCenterChild(recyclerView, true, sCenterChild);
+        View child = sCenterChild.view;
+        sCenterChild.reset();
+        return child;
     }
 
     /**
      * Get position of center child in X Axes
      */
     public static int getCenterXChildPosition(RecyclerView recyclerView) {
-        int childCount = recyclerView.getChildCount();
-        if (childCount > 0) {
-            for (int i = 0; i < childCount; i++) {
-                View child = recyclerView.getChildAt(i);
-                if (isChildInCenterX(recyclerView, child)) {
-                    return recyclerView.getChildAdapterPosition(child);
-                }
-            }
+        if (findCenterChild(recyclerView, true, sCenterChild)) {
+            int position = sCenterChild.position;
+            sCenterChild.reset();
+            return position;
         }
-        return childCount;
+        return recyclerView.getChildCount();
     }
 
     /**
      * Get center child in Y Axes
      */
     public static View getCenterYChild(RecyclerView recyclerView) {
-        int childCount = recyclerView.getChildCount();
-        if (childCount > 0) {
-            for (int i = 0; i < childCount; i++) {
-                View child = recyclerView.getChildAt(i);
-                if (isChildInCenterY(recyclerView, child)) {
-                    return child;
-                }
-            }
-        }
-        return null;
+        findCenterChild(recyclerView, false, sCenterChild);
+        View child = sCenterChild.view;
+        sCenterChild.reset();
+        return child;
     }
 
     /**
      * Get position of center child in Y Axes
      */
     public static int getCenterYChildPosition(RecyclerView recyclerView) {
-        int childCount = recyclerView.getChildCount();
-        if (childCount > 0) {
-            for (int i = 0; i < childCount; i++) {
-                View child = recyclerView.getChildAt(i);
-                if (isChildInCenterY(recyclerView, child)) {
-                    return recyclerView.getChildAdapterPosition(child);
-                }
-            }
+        if (findCenterChild(recyclerView, false, sCenterChild)) {
+            int position = sCenterChild.position;
+            sCenterChild.reset();
+            return position;
         }
-        return childCount;
+        return recyclerView.getChildCount();
     }
 
     public static boolean isChildInCenterX(RecyclerView recyclerView, View view) {
-        int childCount = recyclerView.getChildCount();
-        int[] lvLocationOnScreen = new int[2];
-        int[] vLocationOnScreen = new int[2];
-        recyclerView.getLocationOnScreen(lvLocationOnScreen);
-        int middleX = lvLocationOnScreen[0] + recyclerView.getWidth() / 2;
-        if (childCount > 0) {
-            view.getLocationOnScreen(vLocationOnScreen);
-            if (vLocationOnScreen[0] <= middleX && vLocationOnScreen[0] + view.getWidth() >= middleX) {
-                return true;
-            }
-        }
-        return false;
+        return isChildInCenter(recyclerView, view, true);
     }
 
     public static boolean isChildInCenterY(RecyclerView recyclerView, View view) {
-        int childCount = recyclerView.getChildCount();
-        int[] lvLocationOnScreen = new int[2];
-        int[] vLocationOnScreen = new int[2];
-        recyclerView.getLocationOnScreen(lvLocationOnScreen);
-        int middleY = lvLocationOnScreen[1] + recyclerView.getHeight() / 2;
-        if (childCount > 0) {
-            view.getLocationOnScreen(vLocationOnScreen);
-            if (vLocationOnScreen[1] <= middleY && vLocationOnScreen[1] + view.getHeight() >= middleY) {
-                return true;
-            }
+        return isChildInCenter(recyclerView, view, false);
+    }
+
+    private static boolean isChildInCenter(RecyclerView recyclerView, View view, boolean horizontal) {
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager == null || recyclerView.getChildCount() == 0) {
+            return false;
         }
-        return false;
+        final int middle = horizontal ? recyclerView.getWidth() / 2 : recyclerView.getHeight() / 2;
+        return getStart(layoutManager, view, horizontal) <= middle && getEnd(layoutManager, view, horizontal) >= middle;
     }
 
 }
@@ -0,0 +1,21 @@
+package com.lei.recyclerview.widget;
+
+/**
+ * 在后台线程加载数据的{@link PullCallback}，
+ * 由{@link PullToLoadView}在线程池中调用，返回的数据在主线程一次性刷新到适配器并结束刷新状态
+ *
+ * @author lei
+ */
+public interface AsyncPullCallback<T> {
+
+    /**
+     * 在后台线程调用，抛出异常视为加载失败，异常可以通过{@link PullToLoadView#getLoadError()}读取
+     */
+    PullResult<T> onLoadMore() throws Exception;
+
+    /**
+     * 在后台线程调用，抛出异常视为加载失败，异常可以通过{@link PullToLoadView#getLoadError()}读取
+     */
+    PullResult<T> onRefresh() throws Exception;
+
+}
@@ -0,0 +1,105 @@
+package com.lei.recyclerview.widget;
+
+/**
+ * Fixed-size histogram of frame durations behind {@link ScrollFrameMonitor}: 0.25ms buckets up to
+ * 200ms, longer frames go to the last bucket. Recording allocates nothing.
+ */
+final class FrameHistogram {
+
+    static final long NANOS_PER_MILLI = 1000000L;
+    static final long BUCKET_NANOS = 250000L;
+    static final int BUCKET_COUNT = 800;
+
+    private final int[] mBuckets = new int[BUCKET_COUNT];
+    private int mFrameCount = 0;
+    private long mMaxFrameNanos = 0;
+    private int mOverBudgetCount = 0;
+    private int mJankCount = 0;
+    private long mBudgetNanos;
+
+    FrameHistogram(long budgetNanos) {
+        this.mBudgetNanos = budgetNanos;
+    }
+
+    /**
+     * Applies to frames recorded from now on.
+     */
+    void setBudgetNanos(long budgetNanos) {
+        this.mBudgetNanos = budgetNanos;
+    }
+
+    long getBudgetNanos() {
+        return mBudgetNanos;
+    }
+
+    void record(long frameNanos) {
+        if (frameNanos <= 0) {
+            return;
+        }
+        mBuckets[(int) Math.min(frameNanos / BUCKET_NANOS, BUCKET_COUNT - 1)]++;
+        mFrameCount++;
+        mMaxFrameNanos = Math.max(mMaxFrameNanos, frameNanos);
+        // half a bucket of slack so vsync jitter on an on-time frame is not counted
+        if (frameNanos > mBudgetNanos + BUCKET_NANOS / 2) {
+            mOverBudgetCount++;
+        }
+        if (frameNanos >= 2 * mBudgetNanos) {
+            mJankCount++;
+        }
+    }
+
+    /**
+     * @return upper edge of the bucket holding the given percentile, capped at the longest frame;
+     * the longest frame itself for the open-ended last bucket
+     */
+    long percentile(int percent) {
+        if (mFrameCount == 0) {
+            return 0;
+        }
+        final long rank = ((long) mFrameCount * percent + 99) / 100;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mBuckets[i];
+            if (seen >= rank) {
+                return i == BUCKET_COUNT - 1 ? mMaxFrameNanos : Math.min((i + 1) * BUCKET_NANOS, mMaxFrameNanos);
+            }
+        }
+        return mMaxFrameNanos;
+    }
+
+    int getFrameCount() {
+        return mFrameCount;
+    }
+
+    long getMaxFrameNanos() {
+        return mMaxFrameNanos;
+    }
+
+    int getOverBudgetCount() {
+        return mOverBudgetCount;
+    }
+
+    int getJankCount() {
+        return mJankCount;
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets[i] = 0;
+        }
+        mFrameCount = 0;
+        mMaxFrameNanos = 0;
+        mOverBudgetCount = 0;
+        mJankCount = 0;
+    }
+
+    FrameStats toStats(String name) {
+        return new FrameStats(name, mFrameCount, toMillis(mBudgetNanos),
+                toMillis(percentile(50)), toMillis(percentile(90)), toMillis(percentile(99)),
+                toMillis(mMaxFrameNanos), mOverBudgetCount, mJankCount);
+    }
+
+    static float toMillis(long nanos) {
+        return nanos / (float) NANOS_PER_MILLI;
+    }
+}
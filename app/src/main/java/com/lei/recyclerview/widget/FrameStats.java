@@ -0,0 +1,93 @@
+package com.lei.recyclerview.widget;
+
+/**
+ * Immutable summary of the frames recorded by a {@link ScrollFrameMonitor}, safe to keep or hand to
+ * another thread for export. Durations are in milliseconds; percentiles are the upper edge of the
+ * histogram bucket they fall in.
+ */
+public final class FrameStats {
+
+    private final String name;
+    private final int frameCount;
+    private final float budgetMillis;
+    private final float p50Millis;
+    private final float p90Millis;
+    private final float p99Millis;
+    private final float maxMillis;
+    private final int overBudgetCount;
+    private final int jankCount;
+
+    FrameStats(String name, int frameCount, float budgetMillis, float p50Millis, float p90Millis,
+               float p99Millis, float maxMillis, int overBudgetCount, int jankCount) {
+        this.name = name;
+        this.frameCount = frameCount;
+        this.budgetMillis = budgetMillis;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+        this.overBudgetCount = overBudgetCount;
+        this.jankCount = jankCount;
+    }
+
+    /**
+     * @return the name the monitor was created with, e.g. the screen it measures
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return the frame budget of the display the frames were drawn on
+     */
+    public float getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public float getP50Millis() {
+        return p50Millis;
+    }
+
+    public float getP90Millis() {
+        return p90Millis;
+    }
+
+    public float getP99Millis() {
+        return p99Millis;
+    }
+
+    public float getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * @return frames that took longer than one budget, i.e. missed at least one vsync
+     */
+    public int getOverBudgetCount() {
+        return overBudgetCount;
+    }
+
+    /**
+     * @return frames that took at least twice the budget, long enough for a visible stutter
+     */
+    public int getJankCount() {
+        return jankCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameStats{" + name
+                + " frames=" + frameCount
+                + " budget=" + budgetMillis
+                + " p50=" + p50Millis
+                + " p90=" + p90Millis
+                + " p99=" + p99Millis
+                + " max=" + maxMillis
+                + " overBudget=" + overBudgetCount
+                + " jank=" + jankCount + "}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.lei.recyclerview.widget;
+
+import android.os.SystemClock;
+
+/**
+ * 根据滚动速度和最近几次加载耗时预测何时触发加载更多
+ * <p/>
+ * 按当前速度估算滚到列表末尾还需要的时间，小于预计加载耗时（乘以余量系数）时就开始加载，
+ * 使下一页在滚到底部之前返回。
+ *
+ * @author lei
+ */
+class LoadMorePredictor {
+
+    /**
+     * 还没有加载耗时样本时使用的估计值
+     */
+    private static final long DEFAULT_LATENCY_MS = 600;
+    private static final float LATENCY_WEIGHT = 0.3f;
+    private static final float VELOCITY_WEIGHT = 0.5f;
+    /**
+     * 两次onScrolled间隔超过这个值认为是新的滚动，重新计算速度
+     */
+    private static final long VELOCITY_RESET_MS = 100;
+    private static final float SAFETY_FACTOR = 1.5f;
+
+    private float mLatencyMs = DEFAULT_LATENCY_MS;
+    private boolean mHasLatencySample = false;
+    private long mLoadStartTime = -1;
+
+    /**
+     * 朝列表末尾方向的速度，px/ms
+     */
+    private float mVelocity = 0;
+    private long mLastScrollTime = -1;
+
+    /**
+     * @param delta 沿滚动方向的位移，朝列表末尾为正，反向布局时已取反
+     */
+    void onScrolled(int delta) {
+        long now = SystemClock.uptimeMillis();
+        long dt = now - mLastScrollTime;
+        if (mLastScrollTime < 0 || dt > VELOCITY_RESET_MS) {
+            mVelocity = 0;
+        } else if (dt > 0) {
+            float v = (float) delta / dt;
+            mVelocity = mVelocity == 0 ? v : mVelocity + VELOCITY_WEIGHT * (v - mVelocity);
+        }
+        mLastScrollTime = now;
+    }
+
+    void onScrollIdle() {
+        mVelocity = 0;
+        mLastScrollTime = -1;
+    }
+
+    void onLoadStart() {
+        mLoadStartTime = SystemClock.uptimeMillis();
+    }
+
+    void onLoadComplete() {
+        if (mLoadStartTime < 0) {
+            return;
+        }
+        long latency = SystemClock.uptimeMillis() - mLoadStartTime;
+        mLoadStartTime = -1;
+        if (mHasLatencySample) {
+            mLatencyMs += LATENCY_WEIGHT * (latency - mLatencyMs);
+        } else {
+            mLatencyMs = latency;
+            mHasLatencySample = true;
+        }
+    }
+
+    void onLoadCancel() {
+        mLoadStartTime = -1;
+    }
+
+    /**
+     * @param remainingItems 最后一个可见项之后还有多少项
+     * @param averageExtent  可见项的平均尺寸，px
+     * @return 按当前速度是否应该开始加载
+     */
+    boolean shouldPrefetch(int remainingItems, float averageExtent) {
+        if (mVelocity <= 0 || averageExtent <= 0) {
+            return false;
+        }
+        float timeToEnd = remainingItems * averageExtent / mVelocity;
+        return timeToEnd <= mLatencyMs * SAFETY_FACTOR;
+    }
+}
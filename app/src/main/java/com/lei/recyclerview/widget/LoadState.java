@@ -0,0 +1,23 @@
+package com.lei.recyclerview.widget;
+
+/**
+ * Load states of {@link PullToLoadView}
+ */
+public enum LoadState {
+    /**
+     * no request in flight, load more can be triggered
+     */
+    IDLE,
+    /**
+     * a refresh or load more request is in flight
+     */
+    LOADING,
+    /**
+     * the last request failed, waiting for a retry
+     */
+    ERROR,
+    /**
+     * all items have been loaded
+     */
+    END
+}
@@ -0,0 +1,14 @@
+package com.lei.recyclerview.widget;
+
+/**
+ * 向前加载（聊天、时间线等从中间打开的列表加载更早的数据），
+ * 发起时记下{@link PullToLoadView#getLoadPreviousGeneration()}，
+ * 加载完成后调用{@link PullToLoadView#prependItems(int, java.util.List, boolean)}，刷新前发起的旧结果会被丢弃
+ *
+ * @author lei
+ */
+public interface PullPreviousCallback {
+
+    void onLoadPrevious();
+
+}
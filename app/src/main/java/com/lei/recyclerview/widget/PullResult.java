@@ -0,0 +1,32 @@
+package com.lei.recyclerview.widget;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一次刷新或加载更多的结果
+ *
+ * @author lei
+ */
+public final class PullResult<T> {
+
+    private final List<T> mItems;
+    private final boolean mHasMore;
+
+    public PullResult(List<T> items, boolean hasMore) {
+        this.mItems = items != null ? items : Collections.<T>emptyList();
+        this.mHasMore = hasMore;
+    }
+
+    public static <T> PullResult<T> of(List<T> items, boolean hasMore) {
+        return new PullResult<>(items, hasMore);
+    }
+
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    public boolean hasMore() {
+        return mHasMore;
+    }
+}
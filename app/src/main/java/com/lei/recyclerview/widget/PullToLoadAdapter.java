@@ -1,6 +1,7 @@
 package com.lei.recyclerview.widget;
 
 import androidx.recyclerview.widget.RecyclerView;
+import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ProgressBar;
@@ -10,8 +11,15 @@ import com.lei.recyclerview.BaseRecyclerAdapter;
 import com.lei.recyclerview.BaseViewHolder;
 import com.lei.recyclerview.R;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Created by dell on 2017/2/7.
+ * <p/>
+ * 列表由四段组成：header、内容、footer、加载更多，各段起始位置由header数、内容数、footer数直接算出，
+ * 不需要层层包装适配器。
  */
 
 class PullToLoadAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
@@ -20,73 +28,379 @@ class PullToLoadAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     private boolean showFooter = false;
     private boolean mProgressBarShow = true;
     private String mFooterInfo = "加载更多";
+    private View.OnClickListener mFooterClickListener;
+    private int mFooterLayout = R.layout.layout_bottom_load;
+    private int mFooterViewType = TYPE_FOOTER;
+
+    private static final int TYPE_FOOTER = -1;
+    private static final long FOOTER_ID = Long.MIN_VALUE;
+    static final Object PAYLOAD_FOOTER_STATE = new Object();
+
+    /**
+     * header、footer的viewType全局唯一，多个列表共用回收池时不会拿到其他列表的header
+     */
+    private static final AtomicInteger sSlotViewType = new AtomicInteger(Integer.MIN_VALUE / 2);
+
+    private final List<Slot> mHeaders = new ArrayList<>();
+    private final List<Slot> mFooters = new ArrayList<>();
+    private final SparseArray<View> mSlotViews = new SparseArray<>();
+
+    /**
+     * 内部适配器最近一次通知后的数据量，收到增删通知时adapter.getItemCount()已经是新值，
+     * 需要用它判断footer之前是否显示
+     */
+    private int mContentCount;
 
     public PullToLoadAdapter(BaseRecyclerAdapter adapter) {
         this.adapter = adapter;
+        this.mContentCount = adapter.getItemCount();
+        setHasStableIds(adapter.hasStableIds());
         adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
             @Override
             public void onChanged() {
+                mContentCount = PullToLoadAdapter.this.adapter.getItemCount();
                 notifyDataSetChanged();
             }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                notifyItemRangeChanged(mHeaders.size() + positionStart, itemCount);
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                notifyItemRangeChanged(mHeaders.size() + positionStart, itemCount, payload);
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                boolean footerShown = isFooterShown();
+                mContentCount += itemCount;
+                notifyItemRangeInserted(mHeaders.size() + positionStart, itemCount);
+                if (!footerShown && isFooterShown()) {
+                    notifyItemInserted(getLoadFooterPosition());
+                }
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                boolean footerShown = isFooterShown();
+                mContentCount -= itemCount;
+                notifyItemRangeRemoved(mHeaders.size() + positionStart, itemCount);
+                if (footerShown && !isFooterShown()) {
+                    notifyItemRemoved(getLoadFooterPosition());
+                }
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                if (itemCount == 1) {
+                    notifyItemMoved(mHeaders.size() + fromPosition, mHeaders.size() + toPosition);
+                } else {
+                    notifyDataSetChanged();
+                }
+            }
         });
     }
 
+    private boolean isFooterShown() {
+        return showFooter && mContentCount > 0;
+    }
+
+    private int getLoadFooterPosition() {
+        return mHeaders.size() + mContentCount + mFooters.size();
+    }
+
     public void setShowFooter(boolean showFooter) {
-        this.showFooter = showFooter;
+        setFooter(showFooter, mProgressBarShow, mFooterInfo);
+    }
+
+    public void setOnFooterClickListener(View.OnClickListener listener) {
+        this.mFooterClickListener = listener;
+    }
+
+    /**
+     * 替换加载更多的布局，布局中的R.id.progressBar、R.id.tv_info可选。
+     * 自定义布局使用独立的viewType，不会与其他列表的默认footer互相复用
+     *
+     * @param layoutRes
+     */
+    public void setFooterLayout(int layoutRes) {
+        if (mFooterLayout == layoutRes) {
+            return;
+        }
+        boolean footerShown = isFooterShown();
+        if (footerShown) {
+            notifyItemRemoved(getLoadFooterPosition());
+        }
+        mFooterLayout = layoutRes;
+        mFooterViewType = layoutRes == R.layout.layout_bottom_load
+                ? TYPE_FOOTER : sSlotViewType.getAndIncrement();
+        if (footerShown) {
+            notifyItemInserted(getLoadFooterPosition());
+        }
     }
 
     public void setFooterInfo(boolean proBarShow, String footerInfo) {
+        setFooter(showFooter, proBarShow, footerInfo);
+    }
+
+    /**
+     * 一次更新footer的全部状态，只发出一个通知：显示、隐藏分别是插入、删除，
+     * 文字和进度条变化是带{@link #PAYLOAD_FOOTER_STATE}的局部刷新，不会重新绑定内容
+     *
+     * @param show
+     * @param proBarShow
+     * @param footerInfo
+     */
+    public void setFooter(boolean show, boolean proBarShow, String footerInfo) {
+        boolean wasShown = isFooterShown();
+        boolean changed = mProgressBarShow != proBarShow
+                || (mFooterInfo == null ? footerInfo != null : !mFooterInfo.equals(footerInfo));
+        this.showFooter = show;
         this.mProgressBarShow = proBarShow;
         this.mFooterInfo = footerInfo;
+        boolean shown = isFooterShown();
+        if (!wasShown && shown) {
+            notifyItemInserted(getLoadFooterPosition());
+        } else if (wasShown && !shown) {
+            notifyItemRemoved(getLoadFooterPosition());
+        } else if (shown && changed) {
+            notifyItemChanged(getLoadFooterPosition(), PAYLOAD_FOOTER_STATE);
+        }
+    }
+
+    /**
+     * 添加header，header内容变化时直接修改view，不会通过适配器刷新
+     *
+     * @param view
+     */
+    public void addHeaderView(View view) {
+        Slot slot = new Slot(view);
+        mHeaders.add(slot);
+        mSlotViews.put(slot.viewType, view);
+        notifyItemInserted(mHeaders.size() - 1);
+    }
+
+    public void removeHeaderView(View view) {
+        int index = indexOf(mHeaders, view);
+        if (index >= 0) {
+            mSlotViews.remove(mHeaders.remove(index).viewType);
+            notifyItemRemoved(index);
+        }
+    }
+
+    public int getHeaderCount() {
+        return mHeaders.size();
+    }
+
+    /**
+     * 添加footer，位于内容之后、加载更多之前
+     *
+     * @param view
+     */
+    public void addFooterView(View view) {
+        Slot slot = new Slot(view);
+        mFooters.add(slot);
+        mSlotViews.put(slot.viewType, view);
+        notifyItemInserted(mHeaders.size() + mContentCount + mFooters.size() - 1);
+    }
+
+    public void removeFooterView(View view) {
+        int index = indexOf(mFooters, view);
+        if (index >= 0) {
+            mSlotViews.remove(mFooters.remove(index).viewType);
+            notifyItemRemoved(mHeaders.size() + mContentCount + index);
+        }
+    }
+
+    public int getFooterCount() {
+        return mFooters.size();
+    }
+
+    /**
+     * @param position 列表中的位置
+     * @return 内容适配器中的位置，不是内容时返回{@link RecyclerView#NO_POSITION}
+     */
+    public int getContentPosition(int position) {
+        int contentPosition = position - mHeaders.size();
+        if (position == RecyclerView.NO_POSITION || contentPosition < 0 || contentPosition >= mContentCount) {
+            return RecyclerView.NO_POSITION;
+        }
+        return contentPosition;
+    }
 
+    private static int indexOf(List<Slot> slots, View view) {
+        for (int i = 0, size = slots.size(); i < size; i++) {
+            if (slots.get(i).view == view) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        if (viewType == -1) {
-            View view = adapter.getInflater().inflate(R.layout.layout_bottom_load, parent, false);
-            return new FooterHolder(view);
+        if (viewType == mFooterViewType) {
+            View view = adapter.getInflater().inflate(mFooterLayout, parent, false);
+            final FooterHolder holder = new FooterHolder(view);
+            view.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    // 共用回收池时footer可能被其他列表复用，回调当前绑定它的适配器
+                    if (holder.owner != null && holder.owner.mFooterClickListener != null) {
+                        holder.owner.mFooterClickListener.onClick(v);
+                    }
+                }
+            });
+            return holder;
+        }
+        View slotView = mSlotViews.get(viewType);
+        if (slotView != null) {
+            return new SlotHolder(slotView);
         }
         return adapter.onCreateViewHolder(parent, viewType);
     }
 
     @Override
     public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
-        if (holder.getItemViewType() == -1) {
+        if (holder instanceof FooterHolder) {
             FooterHolder viewHolder = (FooterHolder) holder;
-            if (mProgressBarShow) {
-                viewHolder.progressBar.setVisibility(View.VISIBLE);
-            } else {
-                viewHolder.progressBar.setVisibility(View.GONE);
+            viewHolder.owner = this;
+            if (viewHolder.progressBar != null) {
+                viewHolder.progressBar.setVisibility(mProgressBarShow ? View.VISIBLE : View.GONE);
             }
-            viewHolder.tvInfo.setText(mFooterInfo);
+            if (viewHolder.tvInfo != null) {
+                viewHolder.tvInfo.setText(mFooterInfo);
+            }
+        } else if (!(holder instanceof SlotHolder)) {
+            adapter.onBindViewHolder(holder, position - mHeaders.size());
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        adapter.onAttachedToRecyclerView(recyclerView);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        adapter.onDetachedFromRecyclerView(recyclerView);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(RecyclerView.ViewHolder holder) {
+        super.onViewAttachedToWindow(holder);
+        if (isContentHolder(holder)) {
+            adapter.onViewAttachedToWindow((BaseViewHolder) holder);
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(RecyclerView.ViewHolder holder) {
+        super.onViewDetachedFromWindow(holder);
+        if (isContentHolder(holder)) {
+            adapter.onViewDetachedFromWindow((BaseViewHolder) holder);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (isContentHolder(holder)) {
+            adapter.onViewRecycled((BaseViewHolder) holder);
+        }
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(RecyclerView.ViewHolder holder) {
+        if (isContentHolder(holder)) {
+            return adapter.onFailedToRecycleView((BaseViewHolder) holder);
+        }
+        return super.onFailedToRecycleView(holder);
+    }
+
+    private static boolean isContentHolder(RecyclerView.ViewHolder holder) {
+        return holder instanceof BaseViewHolder && !(holder instanceof FooterHolder);
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position, List<Object> payloads) {
+        if (isContentHolder(holder)) {
+            adapter.onBindViewHolder(holder, position - mHeaders.size(), payloads);
         } else {
-            adapter.onBindViewHolder(holder, position);
+            onBindViewHolder(holder, position);
         }
     }
 
     @Override
     public int getItemViewType(int position) {
-        if (showFooter && position == adapter.getItemCount()) {
-            return -1;
-        } else {
-            return adapter.getItemViewType(position);
+        int headerCount = mHeaders.size();
+        if (position < headerCount) {
+            return mHeaders.get(position).viewType;
+        }
+        int offset = position - headerCount;
+        if (offset < mContentCount) {
+            return adapter.getItemViewType(offset);
+        }
+        offset -= mContentCount;
+        if (offset < mFooters.size()) {
+            return mFooters.get(offset).viewType;
         }
+        return mFooterViewType;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        int headerCount = mHeaders.size();
+        if (position < headerCount) {
+            return FOOTER_ID - mHeaders.get(position).viewType;
+        }
+        int offset = position - headerCount;
+        if (offset < mContentCount) {
+            return adapter.getItemId(offset);
+        }
+        offset -= mContentCount;
+        if (offset < mFooters.size()) {
+            return FOOTER_ID - mFooters.get(offset).viewType;
+        }
+        return FOOTER_ID;
     }
 
     @Override
     public int getItemCount() {
-        if (showFooter && adapter.getItemCount() > 0) {
-            return adapter.getItemCount() + 1;
+        int count = mHeaders.size() + mContentCount + mFooters.size();
+        if (isFooterShown()) {
+            return count + 1;
         } else {
-            return adapter.getItemCount();
+            return count;
+        }
+    }
+
+    private static final class Slot {
+        final View view;
+        final int viewType;
+
+        Slot(View view) {
+            this.view = view;
+            this.viewType = sSlotViewType.getAndIncrement();
+        }
+    }
+
+    private static class SlotHolder extends RecyclerView.ViewHolder {
+
+        SlotHolder(View itemView) {
+            super(itemView);
         }
     }
 
-    private class FooterHolder extends BaseViewHolder {
+    private static class FooterHolder extends BaseViewHolder {
 
         public ProgressBar progressBar;
         public TextView tvInfo;
+        PullToLoadAdapter owner;
 
         public FooterHolder(View itemView) {
             super(itemView);
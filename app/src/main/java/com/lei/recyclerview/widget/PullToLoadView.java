@@ -1,31 +1,97 @@
 package com.lei.recyclerview.widget;
 
 import android.content.Context;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import android.util.AttributeSet;
+import android.util.Log;
 import android.view.LayoutInflater;
+import android.view.View;
 import android.widget.FrameLayout;
 
 import com.lei.recyclerview.BaseRecyclerAdapter;
+import com.lei.recyclerview.BaseViewHolder;
+import com.lei.recyclerview.ItemClickDispatcher;
 import com.lei.recyclerview.R;
+import com.lei.recyclerview.paging.PagedList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * @author lei
  */
 public class PullToLoadView extends FrameLayout {
 
+    private static final String TAG = "PullToLoadView";
+
     private SwipeRefreshLayout mSwipeRefreshLayout;
     private RecyclerView mRecyclerView;
     private PullCallback mPullCallback;
-    private RecyclerViewPositionHelper mRecyclerViewHelper;
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    private Executor mPullExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+    private String mLoadedAllInfo;
     private PullToLoadAdapter mAdapter;
+    private BaseRecyclerAdapter mContentAdapter;
+    private ItemClickDispatcher mClickDispatcher;
+    private VisibilityTracker mVisibilityTracker;
+    private final ScrollMetrics mScrollMetrics = new ScrollMetrics();
+    private final List<View> mHeaderViews = new ArrayList<>();
+    private final List<View> mFooterViews = new ArrayList<>();
+    private int mFooterLayout;
     protected ScrollDirection mCurScrollingDirection;
     protected int mPrevFirstVisibleItem = 0;
     private int mLoadMoreOffset = 3;
-    private boolean isLoading = false;
     private boolean mHasMoreItem = false;
 
+    private LoadState mLoadState = LoadState.IDLE;
+    /**
+     * 每次发起刷新或加载更多时加一，结果带回的值不等于当前值说明请求已经被新的请求取代
+     */
+    private int mLoadGeneration = 0;
+    private boolean mLoadingMore = false;
+    /**
+     * 最近一次失败的原因，重新发起请求或请求成功时清空
+     */
+    private Throwable mLoadError;
+
+    private PullPreviousCallback mPullPreviousCallback;
+    private boolean mHasPrevious = false;
+    private boolean mLoadingPrevious = false;
+    /**
+     * 每次发起向前加载或刷新时加一，和加载更多互不影响，两者可以同时进行
+     */
+    private int mPreviousGeneration = 0;
+    private int mLoadPreviousOffset = 3;
+    /**
+     * 内容最多保留的条数，超出时裁掉远离当前位置一端的数据，0表示不限制
+     */
+    private int mMaxItemCount = 0;
+    private int mRetryCount = 0;
+    private int mMaxAutoRetries = 3;
+    private long mRetryDelay = 1000;
+    /**
+     * 已安排自动重试但还没执行，离开窗口时回调被移除，重新显示时据此再次安排
+     */
+    private boolean mRetryPending = false;
+    private final Runnable mRetryRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mRetryPending = false;
+            retryLoad();
+        }
+    };
+    /**
+     * 为true时除了固定的mLoadMoreOffset，还会按滚动速度和加载耗时提前触发加载更多
+     */
+    private boolean mAdaptiveLoadMore = false;
+    private final LoadMorePredictor mLoadMorePredictor = new LoadMorePredictor();
+
     public PullToLoadView(Context context) {
         this(context, null);
     }
@@ -43,81 +109,309 @@ public class PullToLoadView extends FrameLayout {
         init();
     }
 
-    @Override
-    protected void onAttachedToWindow() {
-        super.onAttachedToWindow();
-        mRecyclerViewHelper = RecyclerViewPositionHelper.createHelper(mRecyclerView);
-    }
-
     private void init() {
         mSwipeRefreshLayout.setOnRefreshListener(new SwipeRefreshLayout.OnRefreshListener() {
             @Override
             public void onRefresh() {
                 if (null != mPullCallback) {
-                    isLoading = true;
+                    startRefresh();
                     mPullCallback.onRefresh();
                 }
             }
         });
 
+        mRecyclerView.addOnScrollListener(mScrollMetrics);
         mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
             public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
                 super.onScrollStateChanged(recyclerView, newState);
-                mCurScrollingDirection = null;
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    mLoadMorePredictor.onScrollIdle();
+                }
             }
-
+        });
+        mScrollMetrics.addListener(new ScrollMetrics.Listener() {
             @Override
-            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
-                super.onScrolled(recyclerView, dx, dy);
-                if (mCurScrollingDirection == null) { //User has just started a scrolling motion
-                    mCurScrollingDirection = ScrollDirection.SAME;
-                    mPrevFirstVisibleItem = mRecyclerViewHelper.findFirstVisibleItemPosition();
-                } else {
-                    final int firstVisibleItem = mRecyclerViewHelper.findFirstVisibleItemPosition();
-                    if (firstVisibleItem > mPrevFirstVisibleItem) {
-                        //User is scrolling up
-                        mCurScrollingDirection = ScrollDirection.UP;
-                    } else if (firstVisibleItem < mPrevFirstVisibleItem) {
-                        //User is scrolling down
-                        mCurScrollingDirection = ScrollDirection.DOWN;
-                    } else {
-                        mCurScrollingDirection = ScrollDirection.SAME;
-                    }
-                    mPrevFirstVisibleItem = firstVisibleItem;
-                }
+            public void onScrollMetricsChanged(ScrollMetrics metrics) {
+                onScrolled(metrics);
+            }
+        });
+    }
 
-                if (mCurScrollingDirection == ScrollDirection.UP) {
-                    //We only need to paginate if user scrolling near the end of the list
-                    if (!isLoading && mHasMoreItem) {
-                        //Only trigger a load more if a load operation is NOT happening AND all the items have not
-                        // been loaded
-                        final int totalItemCount = mRecyclerViewHelper.getItemCount();
-                        final int firstVisibleItem = mRecyclerViewHelper.findFirstVisibleItemPosition();
-                        final int visibleItemCount = Math.abs(mRecyclerViewHelper.findLastVisibleItemPosition() -
-                                firstVisibleItem);
-                        final int lastAdapterPosition = totalItemCount - 1;
-                        final int lastVisiblePosition = (firstVisibleItem + visibleItemCount) - 1;
-                        if (lastVisiblePosition >= (lastAdapterPosition - mLoadMoreOffset)) {
-                            if (null != mPullCallback) {
-                                isLoading = true;
-                                mPullCallback.onLoadMore();
-                            }
-                        }
-                    }
+    private void onScrolled(ScrollMetrics metrics) {
+        mLoadMorePredictor.onScrolled(metrics.getDelta());
+        mCurScrollingDirection = metrics.getDirection();
+        mPrevFirstVisibleItem = metrics.getFirstVisiblePosition();
+
+        dispatchVisibleRange();
+
+        if (mCurScrollingDirection == ScrollDirection.UP) {
+            //We only need to paginate if user scrolling near the end of the list
+            if (mLoadState == LoadState.IDLE && mHasMoreItem) {
+                //Only trigger a load more if a load operation is NOT happening AND all the items have not
+                // been loaded
+                final int lastAdapterPosition = metrics.getItemCount() - 1;
+                final int lastVisiblePosition = metrics.getLastVisiblePosition();
+                if (lastVisiblePosition != RecyclerView.NO_POSITION
+                        && (lastVisiblePosition >= (lastAdapterPosition - mLoadMoreOffset)
+                        || shouldPrefetch(lastAdapterPosition - lastVisiblePosition))) {
+                    startLoadMore();
                 }
             }
-        });
+        } else if (mCurScrollingDirection == ScrollDirection.DOWN) {
+            maybeLoadPrevious();
+        }
     }
 
-    public void setComplete() {
+    private void maybeLoadPrevious() {
+        if (mLoadingPrevious || !mHasPrevious || null == mPullPreviousCallback
+                || (mLoadState == LoadState.LOADING && !mLoadingMore) || isPagedContent()) {
+            return;
+        }
+        int headerCount = mAdapter != null ? mAdapter.getHeaderCount() : 0;
+        int firstVisibleItem = mScrollMetrics.getFirstVisiblePosition();
+        if (firstVisibleItem != RecyclerView.NO_POSITION
+                && firstVisibleItem - headerCount <= mLoadPreviousOffset) {
+            mLoadingPrevious = true;
+            mPreviousGeneration++;
+            mPullPreviousCallback.onLoadPrevious();
+        }
+    }
+
+    private boolean shouldPrefetch(int remainingItems) {
+        if (!mAdaptiveLoadMore) {
+            return false;
+        }
+        int childCount = mRecyclerView.getChildCount();
+        if (childCount == 0) {
+            return false;
+        }
+        View first = mRecyclerView.getChildAt(0);
+        View last = mRecyclerView.getChildAt(childCount - 1);
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        float extent;
+        if (layoutManager != null && layoutManager.canScrollHorizontally()) {
+            extent = Math.abs(last.getRight() - first.getLeft());
+        } else {
+            extent = Math.abs(last.getBottom() - first.getTop());
+        }
+        return mLoadMorePredictor.shouldPrefetch(remainingItems, extent / childCount);
+    }
+
+    /**
+     * 分页列表自己按可见区域加载，不能追加或插入，加载更多和向前加载都不触发
+     */
+    private boolean isPagedContent() {
+        return mContentAdapter != null && mContentAdapter.getList() instanceof PagedList;
+    }
+
+    /**
+     * 内容使用分页列表时，把可见区域告知PagedList以加载、丢弃对应的页
+     */
+    private void dispatchVisibleRange() {
+        if (mContentAdapter == null) {
+            return;
+        }
+        List list = mContentAdapter.getList();
+        if (list instanceof PagedList) {
+            int contentCount = mContentAdapter.getItemCount();
+            int headerCount = mAdapter != null ? mAdapter.getHeaderCount() : 0;
+            int first = Math.max(mScrollMetrics.getFirstVisiblePosition() - headerCount, 0);
+            int last = Math.min(mScrollMetrics.getLastVisiblePosition() - headerCount, contentCount - 1);
+            if (last >= first) {
+                ((PagedList) list).loadAround(first, last);
+            }
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // footer仍显示“正在重试”，把离开窗口时取消的重试补上
+        if (mRetryPending && mLoadState == LoadState.ERROR) {
+            mRecyclerView.removeCallbacks(mRetryRunnable);
+            mRecyclerView.postDelayed(mRetryRunnable, mRetryDelay << Math.max(mRetryCount - 1, 0));
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mRecyclerView.removeCallbacks(mRetryRunnable);
+    }
+
+    private void cancelRetry() {
+        mRetryPending = false;
+        mRecyclerView.removeCallbacks(mRetryRunnable);
+    }
+
+    private void startRefresh() {
+        cancelRetry();
+        mRetryCount = 0;
+        mLoadError = null;
+        mLoadGeneration++;
+        mLoadState = LoadState.LOADING;
+        mLoadingMore = false;
+        mLoadingPrevious = false;
+        mPreviousGeneration++;
+        mLoadMorePredictor.onLoadCancel();
+    }
+
+    /**
+     * 只有空闲状态才会发起，加载中、出错、已全部加载时重复的触发都会被忽略
+     */
+    private void startLoadMore() {
+        if (mLoadState != LoadState.IDLE || !mHasMoreItem || null == mPullCallback || isPagedContent()) {
+            return;
+        }
+        mLoadGeneration++;
+        mLoadError = null;
+        mLoadState = LoadState.LOADING;
+        mLoadingMore = true;
+        mLoadMorePredictor.onLoadStart();
+        if (mAdapter != null) {
+            mAdapter.setFooterInfo(true, "加载更多");
+        }
+        mPullCallback.onLoadMore();
+    }
+
+    private void hideRefreshView() {
         mSwipeRefreshLayout.postDelayed(new Runnable() {
             @Override
             public void run() {
                 mSwipeRefreshLayout.setRefreshing(false);
             }
         }, 500);//延时500毫秒隐藏刷新控件，更平缓
-        isLoading = false;
+    }
+
+    public void setComplete() {
+        completeLoad(mLoadGeneration);
+    }
+
+    /**
+     * 当前请求失败
+     */
+    public void setFailed() {
+        failLoad(mLoadGeneration);
+    }
+
+    /**
+     * 当前请求的标识，在{@link PullCallback#onRefresh()}、{@link PullCallback#onLoadMore()}中获取，
+     * 请求结束时传给{@link #completeLoad(int)}、{@link #failLoad(int)}
+     */
+    public int getLoadGeneration() {
+        return mLoadGeneration;
+    }
+
+    /**
+     * @param generation
+     * @return 请求是否仍然有效，已被新的刷新取代的请求结果应该丢弃
+     */
+    public boolean isCurrentLoad(int generation) {
+        return generation == mLoadGeneration && mLoadState == LoadState.LOADING;
+    }
+
+    /**
+     * 请求成功结束
+     *
+     * @param generation {@link #getLoadGeneration()}
+     * @return false表示请求已被取代，调用方应丢弃结果
+     */
+    public boolean completeLoad(int generation) {
+        if (generation != mLoadGeneration) {
+            return false;
+        }
+        hideRefreshView();
+        if (mLoadState == LoadState.LOADING && mLoadingMore) {
+            mLoadMorePredictor.onLoadComplete();
+        }
+        mRetryCount = 0;
+        mLoadError = null;
+        mLoadState = mHasMoreItem ? LoadState.IDLE : LoadState.END;
+        return true;
+    }
+
+    /**
+     * 请求失败，加载更多失败时按指数退避自动重试，超过次数后等待点击footer重试
+     *
+     * @param generation {@link #getLoadGeneration()}
+     * @return false表示请求已被取代
+     */
+    public boolean failLoad(int generation) {
+        return failLoad(generation, null);
+    }
+
+    /**
+     * 请求失败并记录原因，可以通过{@link #getLoadError()}读取
+     *
+     * @param generation {@link #getLoadGeneration()}
+     * @param error      失败原因，可以为null
+     * @return false表示请求已被取代
+     */
+    public boolean failLoad(int generation, Throwable error) {
+        if (generation != mLoadGeneration || mLoadState != LoadState.LOADING) {
+            return false;
+        }
+        if (error != null) {
+            Log.w(TAG, "load failed", error);
+        }
+        mLoadError = error;
+        hideRefreshView();
+        mLoadMorePredictor.onLoadCancel();
+        mLoadState = LoadState.ERROR;
+        if (mLoadingMore) {
+            boolean autoRetry = mRetryCount < mMaxAutoRetries;
+            if (mAdapter != null) {
+                mAdapter.setFooter(true, false, autoRetry ? "加载失败，正在重试" : "加载失败，点击重试");
+            }
+            if (autoRetry) {
+                mRetryPending = true;
+                mRecyclerView.postDelayed(mRetryRunnable, mRetryDelay << mRetryCount);
+                mRetryCount++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 重新发起失败的请求
+     */
+    public void retryLoad() {
+        if (mLoadState != LoadState.ERROR) {
+            return;
+        }
+        cancelRetry();
+        if (mLoadingMore) {
+            mLoadState = mHasMoreItem ? LoadState.IDLE : LoadState.END;
+            startLoadMore();
+            if (mLoadState != LoadState.LOADING) {
+                // 没有发起请求，把失败期间跳过的footer更新补上
+                updateFooter();
+            }
+        } else {
+            initLoad();
+        }
+    }
+
+    /**
+     * @param initialDelay 第一次自动重试的延时，之后每次翻倍
+     * @param maxRetries   自动重试次数，0表示只能点击重试
+     */
+    public void setRetryPolicy(long initialDelay, int maxRetries) {
+        this.mRetryDelay = Math.max(0, initialDelay);
+        this.mMaxAutoRetries = Math.max(0, maxRetries);
+    }
+
+    public LoadState getLoadState() {
+        return mLoadState;
+    }
+
+    /**
+     * @return 处于{@link LoadState#ERROR}时失败的原因，{@link AsyncPullCallback}抛出的异常也在这里；
+     * 没有记录原因时为null
+     */
+    public Throwable getLoadError() {
+        return mLoadError;
     }
 
     public void initLoad() {
@@ -128,7 +422,7 @@ public class PullToLoadView extends FrameLayout {
                     mSwipeRefreshLayout.setRefreshing(true);
                 }
             });
-            isLoading = true;
+            startRefresh();
             mPullCallback.onRefresh();
         }
     }
@@ -140,7 +434,7 @@ public class PullToLoadView extends FrameLayout {
                 mSwipeRefreshLayout.setRefreshing(true);
             }
         });
-        isLoading = true;
+        startRefresh();
     }
 
     public void setColorSchemeResources(int... colorResIds) {
@@ -159,41 +453,480 @@ public class PullToLoadView extends FrameLayout {
         this.mRecyclerView.setLayoutManager(manager);
     }
 
+    /**
+     * 同一界面上的多个列表共用回收池，相同viewType的holder可以互相复用
+     *
+     * @param pool
+     */
+    public void setRecycledViewPool(RecyclerView.RecycledViewPool pool) {
+        this.mRecyclerView.setRecycledViewPool(pool);
+    }
+
     public void addItemDecoration(RecyclerView.ItemDecoration decor) {
         this.mRecyclerView.addItemDecoration(decor);
     }
 
     public void setAdapter(BaseRecyclerAdapter adapter) {
+        mContentAdapter = adapter;
         mAdapter = new PullToLoadAdapter(adapter);
+        if (mFooterLayout != 0) {
+            mAdapter.setFooterLayout(mFooterLayout);
+        }
+        for (View header : mHeaderViews) {
+            mAdapter.addHeaderView(header);
+        }
+        for (View footer : mFooterViews) {
+            mAdapter.addFooterView(footer);
+        }
+        mAdapter.setOnFooterClickListener(new OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (mLoadState == LoadState.ERROR) {
+                    mRetryCount = 0;
+                    retryLoad();
+                }
+            }
+        });
         mRecyclerView.setAdapter(mAdapter);
     }
 
+    /**
+     * 没有更多数据时，设置过{@link #setLoadedAllInfo(String)}则footer直接切换成该信息，否则隐藏footer
+     *
+     * @param has
+     */
     public void hasMoreItems(boolean has) {
         mHasMoreItem = has;
-        if (mAdapter != null) {
-            mAdapter.setShowFooter(has);
-            mAdapter.setFooterInfo(true, "加载更多");
+        if (mLoadState == LoadState.IDLE || mLoadState == LoadState.END) {
+            mLoadState = has ? LoadState.IDLE : LoadState.END;
         }
+        updateFooter();
     }
 
     /**
-     * 设置数据加载完列表底部信息显示
+     * 设置数据加载完列表底部信息显示，之后的{@link #hasMoreItems(boolean)}(false)也会显示该信息。
+     * 先调用hasMoreItems(false)再调用本方法时footer会先移除再插入，
+     * 预先用{@link #setLoadedAllInfo(String)}设置可以只刷新一次
      *
      * @param info
      */
     public void hasLoadedAllItems(String info) {
+        mLoadedAllInfo = info;
+        if (mAdapter != null && mLoadState != LoadState.ERROR) {
+            mAdapter.setFooter(true, false, info);
+        }
+    }
+
+    /**
+     * 先确定footer最终的显示状态，再一次性交给适配器，避免先移除再插入。
+     * 失败状态下footer显示重试提示、点击会重试，不覆盖它，重试时再更新
+     */
+    private void updateFooter() {
+        if (mAdapter == null || mLoadState == LoadState.ERROR) {
+            return;
+        }
+        if (mHasMoreItem) {
+            mAdapter.setFooter(true, true, "加载更多");
+        } else if (mLoadedAllInfo != null) {
+            mAdapter.setFooter(true, false, mLoadedAllInfo);
+        } else {
+            mAdapter.setFooter(false, true, "加载更多");
+        }
+    }
+
+    /**
+     * 添加header，可以在setAdapter之前调用
+     *
+     * @param view
+     */
+    public void addHeaderView(View view) {
+        mHeaderViews.add(view);
+        if (mAdapter != null) {
+            mAdapter.addHeaderView(view);
+        }
+    }
+
+    public void removeHeaderView(View view) {
+        mHeaderViews.remove(view);
+        if (mAdapter != null) {
+            mAdapter.removeHeaderView(view);
+        }
+    }
+
+    /**
+     * 添加footer，显示在内容之后、加载更多之前，可以在setAdapter之前调用
+     *
+     * @param view
+     */
+    public void addFooterView(View view) {
+        mFooterViews.add(view);
+        if (mAdapter != null) {
+            mAdapter.addFooterView(view);
+        }
+    }
+
+    public void removeFooterView(View view) {
+        mFooterViews.remove(view);
+        if (mAdapter != null) {
+            mAdapter.removeFooterView(view);
+        }
+    }
+
+    /**
+     * 替换加载更多的布局，布局中id为progressBar、tv_info的控件会显示加载状态
+     *
+     * @param layoutRes
+     */
+    public void setLoadMoreLayout(int layoutRes) {
+        mFooterLayout = layoutRes;
         if (mAdapter != null) {
-            mAdapter.setShowFooter(true);
-            mAdapter.setFooterInfo(false, info);
+            mAdapter.setFooterLayout(layoutRes);
+        }
+    }
+
+    public void setOnItemClickListener(BaseViewHolder.OnItemClickListener listener) {
+        getClickDispatcher().setOnItemClickListener(listener);
+    }
+
+    public void setOnItemLongClickListener(ItemClickDispatcher.OnItemLongClickListener listener) {
+        getClickDispatcher().setOnItemLongClickListener(listener);
+    }
+
+    public void setOnItemDoubleTapListener(ItemClickDispatcher.OnItemDoubleTapListener listener) {
+        getClickDispatcher().setOnItemDoubleTapListener(listener);
+    }
+
+    /**
+     * 列表item的点击分发，只分发内容，回调的是内容适配器中的位置
+     */
+    public ItemClickDispatcher getClickDispatcher() {
+        if (mClickDispatcher == null) {
+            mClickDispatcher = new ItemClickDispatcher() {
+                @Override
+                protected int getItemPosition(RecyclerView.ViewHolder holder) {
+                    if (mAdapter == null) {
+                        return RecyclerView.NO_POSITION;
+                    }
+                    return mAdapter.getContentPosition(holder.getAdapterPosition());
+                }
+            };
+            mClickDispatcher.attachToRecyclerView(mRecyclerView);
+        }
+        return mClickDispatcher;
+    }
+
+    /**
+     * 列表item的曝光统计，只统计内容，回调的是内容适配器中的位置
+     */
+    public VisibilityTracker getVisibilityTracker() {
+        if (mVisibilityTracker == null) {
+            mVisibilityTracker = new VisibilityTracker() {
+                @Override
+                protected int getItemPosition(RecyclerView.ViewHolder holder) {
+                    if (mAdapter == null) {
+                        return RecyclerView.NO_POSITION;
+                    }
+                    return mAdapter.getContentPosition(holder.getAdapterPosition());
+                }
+            };
+            mVisibilityTracker.attachToRecyclerView(mRecyclerView);
         }
+        return mVisibilityTracker;
     }
 
     public void setPullCallback(PullCallback mPullCallback) {
         this.mPullCallback = mPullCallback;
     }
 
+    /**
+     * 设置在后台线程加载数据的回调，结果由控件在主线程写入适配器，
+     * 并自动调用{@link #hasMoreItems(boolean)}、{@link #setComplete()}、{@link #setFailed()}，
+     * 被新的刷新取代的结果会被丢弃
+     *
+     * @param callback
+     */
+    public <T> void setAsyncPullCallback(final AsyncPullCallback<T> callback) {
+        if (callback == null) {
+            this.mPullCallback = null;
+            return;
+        }
+        this.mPullCallback = new PullCallback() {
+            @Override
+            public void onLoadMore() {
+                executeAsync(callback, true);
+            }
+
+            @Override
+            public void onRefresh() {
+                executeAsync(callback, false);
+            }
+        };
+    }
+
+    /**
+     * 设置执行{@link AsyncPullCallback}的线程池，默认为AsyncTask.THREAD_POOL_EXECUTOR
+     *
+     * @param executor
+     */
+    public void setPullExecutor(Executor executor) {
+        this.mPullExecutor = executor != null ? executor : AsyncTask.THREAD_POOL_EXECUTOR;
+    }
+
+    /**
+     * 没有更多数据时footer显示的信息，为null时隐藏footer，
+     * 对{@link #hasMoreItems(boolean)}和{@link AsyncPullCallback}的结果都有效
+     *
+     * @param info
+     */
+    public void setLoadedAllInfo(String info) {
+        this.mLoadedAllInfo = info;
+    }
+
+    private <T> void executeAsync(final AsyncPullCallback<T> callback, final boolean loadMore) {
+        final int generation = mLoadGeneration;
+        mPullExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                PullResult<T> result = null;
+                Throwable error = null;
+                try {
+                    result = loadMore ? callback.onLoadMore() : callback.onRefresh();
+                } catch (Throwable t) {
+                    // 包括Error，否则状态会一直停留在LOADING
+                    error = t;
+                }
+                final PullResult<T> finalResult = result;
+                final Throwable finalError = error;
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyResult(generation, loadMore, finalResult, finalError);
+                    }
+                });
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyResult(int generation, boolean loadMore, PullResult<?> result, Throwable error) {
+        if (!isCurrentLoad(generation)) {
+            if (error != null) {
+                Log.w(TAG, "superseded load failed", error);
+            }
+            return;
+        }
+        if (error != null || result == null) {
+            failLoad(generation, error);
+            return;
+        }
+        BaseRecyclerAdapter adapter = mContentAdapter;
+        if (loadMore && isPagedContent()) {
+            // 加载期间内容换成了分页列表，追加的数据已经没有意义
+            adapter = null;
+        }
+        if (adapter != null) {
+            adapter.beginBatch();
+            try {
+                adapter.refresh(result.getItems(), loadMore);
+                if (loadMore) {
+                    trimHead();
+                }
+            } finally {
+                adapter.commit();
+            }
+        }
+        hasMoreItems(result.hasMore());
+        completeLoad(generation);
+    }
+
+    public void setPullPreviousCallback(PullPreviousCallback callback) {
+        this.mPullPreviousCallback = callback;
+    }
+
+    /**
+     * 是否还有更早的数据，为true时滚动到顶部附近触发{@link PullPreviousCallback#onLoadPrevious()}
+     *
+     * @param has
+     */
+    public void setHasPreviousItems(boolean has) {
+        this.mHasPrevious = has;
+    }
+
+    public void setLoadPreviousOffset(int offset) {
+        this.mLoadPreviousOffset = offset;
+    }
+
+    public boolean isLoadingPrevious() {
+        return mLoadingPrevious;
+    }
+
+    /**
+     * 内容最多保留的条数，向前加载后裁掉末尾、加载更多后裁掉开头，可见的数据不会被裁掉。
+     * 被裁掉的一端会重新允许加载；通过{@link PullCallback}自行追加数据时不会裁剪
+     *
+     * @param maxItemCount 0表示不限制
+     */
+    public void setMaxItemCount(int maxItemCount) {
+        this.mMaxItemCount = Math.max(0, maxItemCount);
+    }
+
+    /**
+     * 当前向前加载的标识，在{@link PullPreviousCallback#onLoadPrevious()}中获取，
+     * 加载结束时传给{@link #prependItems(int, List, boolean)}、{@link #setLoadPreviousFailed(int)}
+     */
+    public int getLoadPreviousGeneration() {
+        return mPreviousGeneration;
+    }
+
+    /**
+     * 把更早的数据插入到当前的向前加载，无法识别刷新之前发起的旧请求，
+     * 请求可能跨越刷新时使用{@link #prependItems(int, List, boolean)}
+     *
+     * @param items
+     * @param hasPrevious 是否还有更早的数据
+     * @return false表示没有进行中的向前加载，数据被丢弃
+     */
+    public boolean prependItems(List<?> items, boolean hasPrevious) {
+        return prependItems(mPreviousGeneration, items, hasPrevious);
+    }
+
+    /**
+     * 把更早的数据插入到内容开头，当前第一个可见项保持在原来的位置
+     *
+     * @param generation  {@link #getLoadPreviousGeneration()}
+     * @param items
+     * @param hasPrevious 是否还有更早的数据
+     * @return false表示向前加载已被刷新或新的向前加载取代，数据被丢弃
+     */
+    @SuppressWarnings("unchecked")
+    public boolean prependItems(int generation, List<?> items, boolean hasPrevious) {
+        if (!mLoadingPrevious || generation != mPreviousGeneration) {
+            return false;
+        }
+        mLoadingPrevious = false;
+        mHasPrevious = hasPrevious;
+        BaseRecyclerAdapter adapter = mContentAdapter;
+        if (adapter == null || items == null || items.isEmpty() || isPagedContent()) {
+            return true;
+        }
+        int anchorPosition = RecyclerView.NO_POSITION;
+        int anchorOffset = 0;
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            LinearLayoutManager manager = (LinearLayoutManager) layoutManager;
+            int position = manager.findFirstVisibleItemPosition();
+            View anchor = position != RecyclerView.NO_POSITION ? manager.findViewByPosition(position) : null;
+            // 第一个可见的是header时，header位置不变，不需要调整
+            if (anchor != null && position >= mAdapter.getHeaderCount()) {
+                anchorPosition = position;
+                anchorOffset = getAnchorOffset(manager, anchor);
+            }
+        }
+        adapter.beginBatch();
+        try {
+            adapter.insertRange(0, items);
+            trimTail(items.size());
+        } finally {
+            adapter.commit();
+        }
+        if (anchorPosition != RecyclerView.NO_POSITION) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(anchorPosition + items.size(), anchorOffset);
+        }
+        return true;
+    }
+
+    /**
+     * 向前加载失败，再次滚动到顶部附近时重新触发
+     */
+    public void setLoadPreviousFailed() {
+        setLoadPreviousFailed(mPreviousGeneration);
+    }
+
+    /**
+     * @param generation {@link #getLoadPreviousGeneration()}，已被取代的请求失败时不影响当前请求
+     */
+    public void setLoadPreviousFailed(int generation) {
+        if (generation == mPreviousGeneration) {
+            mLoadingPrevious = false;
+        }
+    }
+
+    /**
+     * 与scrollToPositionWithOffset的offset含义一致，反向布局时从末尾一侧算起
+     */
+    private static int getAnchorOffset(LinearLayoutManager manager, View anchor) {
+        boolean vertical = manager.getOrientation() == LinearLayoutManager.VERTICAL;
+        if (manager.getReverseLayout()) {
+            return vertical
+                    ? manager.getHeight() - manager.getPaddingBottom() - manager.getDecoratedBottom(anchor)
+                    : manager.getWidth() - manager.getPaddingRight() - manager.getDecoratedRight(anchor);
+        }
+        return vertical
+                ? manager.getDecoratedTop(anchor) - manager.getPaddingTop()
+                : manager.getDecoratedLeft(anchor) - manager.getPaddingLeft();
+    }
+
+    /**
+     * 加载更多后裁掉开头超出的部分，正在向前加载时不裁，避免结果插入后出现断层
+     */
+    private void trimHead() {
+        if (mMaxItemCount <= 0 || mLoadingPrevious) {
+            return;
+        }
+        int excess = mContentAdapter.getItemCount() - mMaxItemCount;
+        int firstVisible = mScrollMetrics.getFirstVisiblePosition() - mAdapter.getHeaderCount();
+        excess = Math.min(excess, firstVisible);
+        if (excess > 0) {
+            mContentAdapter.removeRange(0, excess);
+            mHasPrevious = true;
+        }
+    }
+
+    /**
+     * 向前加载后裁掉末尾超出的部分，正在加载更多时不裁
+     *
+     * @param inserted 刚插入到开头、还没有布局的条数
+     */
+    private void trimTail(int inserted) {
+        if (mMaxItemCount <= 0 || (mLoadState == LoadState.LOADING && mLoadingMore)) {
+            return;
+        }
+        int count = mContentAdapter.getItemCount();
+        int lastVisible = mScrollMetrics.getLastVisiblePosition();
+        if (lastVisible == RecyclerView.NO_POSITION) {
+            return;
+        }
+        lastVisible -= mAdapter.getHeaderCount();
+        if (lastVisible < 0) {
+            return;
+        }
+        lastVisible += inserted;
+        int excess = Math.min(count - mMaxItemCount, count - 1 - lastVisible);
+        if (excess > 0) {
+            mContentAdapter.removeRange(count - excess, excess);
+            hasMoreItems(true);
+        }
+    }
+
+    /**
+     * 每帧滚动时计算一次的可见范围和方向，可以添加监听共用，不需要各自查找可见位置
+     */
+    public ScrollMetrics getScrollMetrics() {
+        return mScrollMetrics;
+    }
+
     public void setLoadMoreOffset(int mLoadMoreOffset) {
         this.mLoadMoreOffset = mLoadMoreOffset;
     }
 
+    /**
+     * 开启后按当前滚动速度、平均item尺寸和最近几次加载更多的耗时估算触发时机，
+     * 快速滑动时提前加载，使下一页在滚到底部之前返回；mLoadMoreOffset仍然作为下限生效
+     *
+     * @param adaptive
+     */
+    public void setAdaptiveLoadMore(boolean adaptive) {
+        this.mAdaptiveLoadMore = adaptive;
+    }
+
 }
@@ -49,6 +49,7 @@ public class RecyclerViewPager extends RecyclerView {
     private boolean mHasCalledOnPageChanged = true;
     private boolean reverseLayout = false;
     private float mLastY;
+    private final ViewUtils.CenterChild mCenterChild = new ViewUtils.CenterChild();
 
     public RecyclerViewPager(Context context) {
         this(context, null);
@@ -293,7 +294,10 @@ public class RecyclerViewPager extends RecyclerView {
 
         int childCount = getChildCount();
         if (childCount > 0) {
-            int curPosition = ViewUtils.getCenterXChildPosition(this);
+            // one lookup for both the position and the view used below
+            View centerXChild = ViewUtils.findCenterChild(this, true, mCenterChild) ? mCenterChild.view : null;
+            int curPosition = centerXChild != null ? mCenterChild.position : childCount;
+            mCenterChild.view = null;
             int childWidth = getWidth() - getPaddingLeft() - getPaddingRight();
             int flingCount = getFlingCount(velocityX, childWidth);
             int targetPosition = curPosition + flingCount;
@@ -309,7 +313,6 @@ public class RecyclerViewPager extends RecyclerView {
             targetPosition = Math.min(targetPosition, getItemCount() - 1);
             if (targetPosition == curPosition
                     && (!mSinglePageFling || mPositionOnTouchDown == curPosition)) {
-                View centerXChild = ViewUtils.getCenterXChild(this);
                 if (centerXChild != null) {
                     if (mTouchSpan > centerXChild.getWidth() * mTriggerOffset * mTriggerOffset && targetPosition != 0) {
                         if (!reverseLayout) targetPosition--;
@@ -356,7 +359,10 @@ public class RecyclerViewPager extends RecyclerView {
 
         int childCount = getChildCount();
         if (childCount > 0) {
-            int curPosition = ViewUtils.getCenterYChildPosition(this);
+            // one lookup for both the position and the view used below
+            View centerYChild = ViewUtils.findCenterChild(this, false, mCenterChild) ? mCenterChild.view : null;
+            int curPosition = centerYChild != null ? mCenterChild.position : childCount;
+            mCenterChild.view = null;
             int childHeight = getHeight() - getPaddingTop() - getPaddingBottom();
             int flingCount = getFlingCount(velocityY, childHeight);
             int targetPosition = curPosition + flingCount;
@@ -369,7 +375,6 @@ public class RecyclerViewPager extends RecyclerView {
             targetPosition = Math.min(targetPosition, getItemCount() - 1);
             if (targetPosition == curPosition
                     && (!mSinglePageFling || mPositionOnTouchDown == curPosition)) {
-                View centerYChild = ViewUtils.getCenterYChild(this);
                 if (centerYChild != null) {
                     if (mTouchSpan > centerYChild.getHeight() * mTriggerOffset && targetPosition != 0) {
                         if (!reverseLayout) targetPosition--;
@@ -1,9 +1,13 @@
 package com.lei.recyclerview.widget;
 
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.OrientationHelper;
 import androidx.recyclerview.widget.RecyclerView;
 import android.view.View;
 
+import com.lei.recyclerview.utils.ViewUtils;
+
 import static androidx.recyclerview.widget.RecyclerView.NO_POSITION;
 
 /**
@@ -12,14 +16,45 @@ import static androidx.recyclerview.widget.RecyclerView.NO_POSITION;
  * Get the first visible, last visible positions.
  * Get the position of a child view
  */
-class RecyclerViewPositionHelper {
+public class RecyclerViewPositionHelper {
+
+    /**
+     * Decorated bounds along either axis for {@link #findCenterChild}, main thread only
+     */
+    private static final AxisBounds sAxisBounds = new AxisBounds();
 
     final RecyclerView recyclerView;
-    final RecyclerView.LayoutManager layoutManager;
+
+    /**
+     * The layout manager the cached orientation helper and range belong to. Read from the
+     * RecyclerView on every call, so a setLayoutManager() invalidates both.
+     */
+    private RecyclerView.LayoutManager mLayoutManager;
+    private OrientationHelper mOrientationHelper;
+    private boolean mVertical;
+
+    private final VisibleRange mRange = new VisibleRange();
+    private final int[] mIndices = new int[4];
+
+    /**
+     * Decorated bounds of the current layout manager's children, valid while computing the range
+     */
+    private final VisibleChildSearch.Bounds mBounds = new VisibleChildSearch.Bounds() {
+        @Override
+        public int getStart(int index) {
+            return mOrientationHelper.getDecoratedStart(mLayoutManager.getChildAt(index));
+        }
+
+        @Override
+        public int getEnd(int index) {
+            return mOrientationHelper.getDecoratedEnd(mLayoutManager.getChildAt(index));
+        }
+    };
+    private boolean mRangeValid = false;
+    private long mRangeDrawingTime;
 
     RecyclerViewPositionHelper(RecyclerView recyclerView) {
         this.recyclerView = recyclerView;
-        this.layoutManager = recyclerView.getLayoutManager();
     }
 
     public static RecyclerViewPositionHelper createHelper(RecyclerView recyclerView) {
@@ -35,6 +70,7 @@ class RecyclerViewPositionHelper {
      * @return The total number on items in a layout manager
      */
     public int getItemCount() {
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
         return layoutManager == null ? 0 : layoutManager.getItemCount();
     }
 
@@ -46,8 +82,7 @@ class RecyclerViewPositionHelper {
      * there aren't any visible items.
      */
     public int findFirstVisibleItemPosition() {
-        final View child = findOneVisibleChild(0, layoutManager.getChildCount(), false, true);
-        return child == null ? NO_POSITION : recyclerView.getChildAdapterPosition(child);
+        return getVisibleRange().firstVisible;
     }
 
     /**
@@ -58,8 +93,7 @@ class RecyclerViewPositionHelper {
      * {@link RecyclerView#NO_POSITION} if there aren't any visible items.
      */
     public int findFirstCompletelyVisibleItemPosition() {
-        final View child = findOneVisibleChild(0, layoutManager.getChildCount(), true, false);
-        return child == null ? NO_POSITION : recyclerView.getChildAdapterPosition(child);
+        return getVisibleRange().firstCompletelyVisible;
     }
 
     /**
@@ -70,8 +104,7 @@ class RecyclerViewPositionHelper {
      * there aren't any visible items
      */
     public int findLastVisibleItemPosition() {
-        final View child = findOneVisibleChild(layoutManager.getChildCount() - 1, -1, false, true);
-        return child == null ? NO_POSITION : recyclerView.getChildAdapterPosition(child);
+        return getVisibleRange().lastVisible;
     }
 
     /**
@@ -82,18 +115,149 @@ class RecyclerViewPositionHelper {
      * {@link RecyclerView#NO_POSITION} if there aren't any visible items.
      */
     public int findLastCompletelyVisibleItemPosition() {
-        final View child = findOneVisibleChild(layoutManager.getChildCount() - 1, -1, true, false);
-        return child == null ? NO_POSITION : recyclerView.getChildAdapterPosition(child);
+        return getVisibleRange().lastCompletelyVisible;
+    }
+
+    /**
+     * Returns the visible range, scanning the children at most once per drawn frame. Callers that
+     * know the children moved within the frame (e.g. from onScrolled) call {@link #invalidate()} first.
+     * The returned object is reused, copy the values to keep them.
+     */
+    public VisibleRange getVisibleRange() {
+        final long drawingTime = recyclerView.getDrawingTime();
+        if (!mRangeValid || drawingTime == 0 || drawingTime != mRangeDrawingTime
+                || mLayoutManager != recyclerView.getLayoutManager()) {
+            computeVisibleRange(mRange);
+            mRangeDrawingTime = drawingTime;
+            mRangeValid = true;
+        }
+        return mRange;
+    }
+
+    public void invalidate() {
+        mRangeValid = false;
+    }
+
+    private void computeVisibleRange(VisibleRange range) {
+        range.reset();
+        final OrientationHelper helper = getOrientationHelper();
+        if (helper == null) {
+            return;
+        }
+        final RecyclerView.LayoutManager layoutManager = mLayoutManager;
+        final int start = helper.getStartAfterPadding();
+        final int end = helper.getEndAfterPadding();
+        final int childCount = layoutManager.getChildCount();
+        final int[] indices = mIndices;
+        if (childCount >= VisibleChildSearch.BINARY_SEARCH_MIN_CHILDREN
+                && hasOrderedChildren(recyclerView, layoutManager)) {
+            VisibleChildSearch.search(mBounds, childCount, start, end, indices);
+        } else {
+            VisibleChildSearch.scan(mBounds, childCount, start, end, indices);
+        }
+        if (indices[VisibleChildSearch.FIRST] < 0) {
+            return;
+        }
+        range.firstVisibleChild = indices[VisibleChildSearch.FIRST];
+        range.lastVisibleChild = indices[VisibleChildSearch.LAST];
+        final View firstChild = layoutManager.getChildAt(indices[VisibleChildSearch.FIRST]);
+        final View lastChild = layoutManager.getChildAt(indices[VisibleChildSearch.LAST]);
+        range.firstVisible = recyclerView.getChildAdapterPosition(firstChild);
+        range.firstVisibleOffset = helper.getDecoratedStart(firstChild) - start;
+        range.lastVisible = recyclerView.getChildAdapterPosition(lastChild);
+        range.lastVisibleOffset = end - helper.getDecoratedEnd(lastChild);
+        if (indices[VisibleChildSearch.FIRST_COMPLETELY] >= 0) {
+            range.firstCompletelyVisible = recyclerView.getChildAdapterPosition(
+                    layoutManager.getChildAt(indices[VisibleChildSearch.FIRST_COMPLETELY]));
+            range.lastCompletelyVisible = recyclerView.getChildAdapterPosition(
+                    layoutManager.getChildAt(indices[VisibleChildSearch.LAST_COMPLETELY]));
+        }
+    }
+
+    /**
+     * Children of a non-reversed LinearLayoutManager are attached in adapter order and each one
+     * starts where the previous one ends, so decorated starts increase with the child index.
+     * Grid rows can mix decoration insets, and disappearing views during item animations break the
+     * order, so those use the linear scan.
+     */
+    private static boolean hasOrderedChildren(RecyclerView recyclerView, RecyclerView.LayoutManager layoutManager) {
+        return layoutManager instanceof LinearLayoutManager
+                && !(layoutManager instanceof GridLayoutManager)
+                && !((LinearLayoutManager) layoutManager).getReverseLayout()
+                && !recyclerView.isAnimating();
+    }
+
+    /**
+     * Find the child whose decorated bounds contain the center of the RecyclerView, in parent layout
+     * coordinates. Nothing is allocated; ordered children are binary searched like the visible range.
+     *
+     * @param horizontal search along the X axis, otherwise the Y axis
+     * @param out        filled with the view, its adapter position and its signed distance from center
+     * @return false if no child contains the center, out is reset in that case
+     */
+    public static boolean findCenterChild(RecyclerView recyclerView, boolean horizontal, ViewUtils.CenterChild out) {
+        out.view = null;
+        out.position = NO_POSITION;
+        out.distance = 0;
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        final int childCount = layoutManager == null ? 0 : layoutManager.getChildCount();
+        if (childCount == 0) {
+            return false;
+        }
+        final int middle = horizontal ? recyclerView.getWidth() / 2 : recyclerView.getHeight() / 2;
+        final AxisBounds bounds = sAxisBounds;
+        bounds.layoutManager = layoutManager;
+        bounds.horizontal = horizontal;
+        try {
+            final int index;
+            if (childCount >= VisibleChildSearch.BINARY_SEARCH_MIN_CHILDREN
+                    && hasOrderedChildren(recyclerView, layoutManager)) {
+                index = VisibleChildSearch.searchContaining(bounds, childCount, middle);
+            } else {
+                index = VisibleChildSearch.scanContaining(bounds, childCount, middle);
+            }
+            if (index < 0) {
+                return false;
+            }
+            final View child = layoutManager.getChildAt(index);
+            out.view = child;
+            out.position = recyclerView.getChildAdapterPosition(child);
+            out.distance = (bounds.getStart(index) + bounds.getEnd(index)) / 2 - middle;
+            return true;
+        } finally {
+            bounds.layoutManager = null;
+        }
+    }
+
+    /**
+     * The helper is created once per layout manager and only recreated when the layout manager
+     * or its scroll orientation changes.
+     */
+    private OrientationHelper getOrientationHelper() {
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager == null) {
+            mLayoutManager = null;
+            mOrientationHelper = null;
+            return null;
+        }
+        final boolean vertical = layoutManager.canScrollVertically();
+        if (mOrientationHelper == null || mLayoutManager != layoutManager || mVertical != vertical) {
+            mLayoutManager = layoutManager;
+            mVertical = vertical;
+            mOrientationHelper = vertical
+                    ? OrientationHelper.createVerticalHelper(layoutManager)
+                    : OrientationHelper.createHorizontalHelper(layoutManager);
+        }
+        return mOrientationHelper;
     }
 
     public View findOneVisibleChild(int fromIndex, int toIndex, boolean completelyVisible,
                              boolean acceptPartiallyVisible) {
-        OrientationHelper helper;
-        if (layoutManager.canScrollVertically()) {
-            helper = OrientationHelper.createVerticalHelper(layoutManager);
-        } else {
-            helper = OrientationHelper.createHorizontalHelper(layoutManager);
+        final OrientationHelper helper = getOrientationHelper();
+        if (helper == null) {
+            return null;
         }
+        final RecyclerView.LayoutManager layoutManager = mLayoutManager;
 
         final int start = helper.getStartAfterPadding();
         final int end = helper.getEndAfterPadding();
@@ -117,4 +281,22 @@ class RecyclerViewPositionHelper {
         }
         return partiallyVisible;
     }
+
+    private static final class AxisBounds implements VisibleChildSearch.Bounds {
+
+        RecyclerView.LayoutManager layoutManager;
+        boolean horizontal;
+
+        @Override
+        public int getStart(int index) {
+            final View child = layoutManager.getChildAt(index);
+            return horizontal ? layoutManager.getDecoratedLeft(child) : layoutManager.getDecoratedTop(child);
+        }
+
+        @Override
+        public int getEnd(int index) {
+            final View child = layoutManager.getChildAt(index);
+            return horizontal ? layoutManager.getDecoratedRight(child) : layoutManager.getDecoratedBottom(child);
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package com.lei.recyclerview.widget;
+
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Opt-in frame time instrumentation for a scrolling RecyclerView.
+ * <p/>
+ * While the scroll state is not idle a Choreographer frame callback records the time between
+ * consecutive frames into a fixed-size {@link FrameHistogram}; nothing runs while the list is at rest. When a
+ * scroll settles the listener receives a {@link FrameStats} of everything recorded since the last
+ * {@link #reset()}, so one monitor per screen yields a per-screen summary.
+ * <p/>
+ * Attach it to {@link PullToLoadView#getRecyclerView()}, a {@link RecyclerViewPager} or any other
+ * RecyclerView. Recording allocates nothing; only {@link #getStats()} creates the summary object.
+ */
+public class ScrollFrameMonitor {
+
+    public interface Listener {
+        /**
+         * Called on the main thread each time a scroll settles.
+         */
+        void onFrameStats(FrameStats stats);
+    }
+
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    private final String mName;
+    private final FrameHistogram mHistogram = new FrameHistogram(budgetNanos(DEFAULT_REFRESH_RATE));
+
+    private RecyclerView mRecyclerView;
+    private Listener mListener;
+    private boolean mFramePosted = false;
+    private long mLastFrameTimeNanos = 0;
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mLastFrameTimeNanos != 0) {
+                mHistogram.record(frameTimeNanos - mLastFrameTimeNanos);
+            }
+            mLastFrameTimeNanos = frameTimeNanos;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
+
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            if (newState != RecyclerView.SCROLL_STATE_IDLE) {
+                start();
+            } else if (mFramePosted) {
+                stop();
+                if (mListener != null && mHistogram.getFrameCount() > 0) {
+                    mListener.onFrameStats(getStats());
+                }
+            }
+        }
+    };
+
+    /**
+     * A list removed mid-fling never reports idle, stop recording with the window
+     */
+    private final View.OnAttachStateChangeListener mAttachListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            stop();
+        }
+    };
+
+    /**
+     * @param name reported back in {@link FrameStats#getName()}, e.g. the screen being measured
+     */
+    public ScrollFrameMonitor(String name) {
+        this.mName = name;
+    }
+
+    public void attachToRecyclerView(RecyclerView recyclerView) {
+        if (mRecyclerView == recyclerView) {
+            return;
+        }
+        detachFromRecyclerView();
+        mRecyclerView = recyclerView;
+        if (recyclerView != null) {
+            recyclerView.addOnScrollListener(mScrollListener);
+            recyclerView.addOnAttachStateChangeListener(mAttachListener);
+        }
+    }
+
+    public void detachFromRecyclerView() {
+        if (mRecyclerView != null) {
+            stop();
+            mRecyclerView.removeOnScrollListener(mScrollListener);
+            mRecyclerView.removeOnAttachStateChangeListener(mAttachListener);
+            mRecyclerView = null;
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    /**
+     * Clears the recorded frames, e.g. when the screen is shown again.
+     */
+    public void reset() {
+        mHistogram.reset();
+    }
+
+    /**
+     * @return a snapshot of the frames recorded since the last {@link #reset()}
+     */
+    public FrameStats getStats() {
+        return mHistogram.toStats(mName);
+    }
+
+    private void start() {
+        if (mFramePosted) {
+            return;
+        }
+        // the display is only known once attached, and a window can move to another display
+        Display display = mRecyclerView != null ? mRecyclerView.getDisplay() : null;
+        float refreshRate = display != null ? display.getRefreshRate() : 0;
+        mHistogram.setBudgetNanos(budgetNanos(refreshRate >= 1 ? refreshRate : DEFAULT_REFRESH_RATE));
+        mLastFrameTimeNanos = 0;
+        mFramePosted = true;
+        Choreographer.getInstance().postFrameCallback(mFrameCallback);
+    }
+
+    private void stop() {
+        if (mFramePosted) {
+            mFramePosted = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    private static long budgetNanos(float refreshRate) {
+        return (long) (1000 * FrameHistogram.NANOS_PER_MILLI / refreshRate);
+    }
+}
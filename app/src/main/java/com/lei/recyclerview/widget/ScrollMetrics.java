@@ -0,0 +1,131 @@
+package com.lei.recyclerview.widget;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static androidx.recyclerview.widget.RecyclerView.NO_POSITION;
+
+/**
+ * Scroll listener that computes the visible range once per onScrolled frame and shares it.
+ * <p/>
+ * Direction is derived from the dx/dy handed to onScrolled: {@link ScrollDirection#UP} means
+ * positions are increasing, {@link ScrollDirection#DOWN} means they are decreasing, the same
+ * meaning as the first-visible-position comparison it replaces. Listeners added with
+ * {@link #addListener(Listener)} are called after the values are updated, so they only read fields.
+ */
+public class ScrollMetrics extends RecyclerView.OnScrollListener {
+
+    public interface Listener {
+        void onScrollMetricsChanged(ScrollMetrics metrics);
+    }
+
+    private RecyclerViewPositionHelper mPositionHelper;
+    private final List<Listener> mListeners = new ArrayList<>();
+
+    private VisibleRange mVisibleRange;
+    private int mItemCount = 0;
+    private int mDx;
+    private int mDy;
+    private int mDelta;
+    private ScrollDirection mDirection = ScrollDirection.SAME;
+    private int mScrollState = RecyclerView.SCROLL_STATE_IDLE;
+
+    public void addListener(Listener listener) {
+        if (!mListeners.contains(listener)) {
+            mListeners.add(listener);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    @Override
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        mScrollState = newState;
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            mDirection = ScrollDirection.SAME;
+        }
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager == null) {
+            return;
+        }
+        if (mPositionHelper == null || mPositionHelper.recyclerView != recyclerView) {
+            mPositionHelper = RecyclerViewPositionHelper.createHelper(recyclerView);
+        }
+        mDx = dx;
+        mDy = dy;
+        int delta = layoutManager.canScrollVertically() ? dy : dx;
+        if (layoutManager instanceof LinearLayoutManager
+                && ((LinearLayoutManager) layoutManager).getReverseLayout()) {
+            delta = -delta;
+        }
+        mDelta = delta;
+        if (delta > 0) {
+            mDirection = ScrollDirection.UP;
+        } else if (delta < 0) {
+            mDirection = ScrollDirection.DOWN;
+        } else {
+            mDirection = ScrollDirection.SAME;
+        }
+        // onScrolled means the children moved, the range cached for this frame is stale
+        mPositionHelper.invalidate();
+        mVisibleRange = mPositionHelper.getVisibleRange();
+        mItemCount = mPositionHelper.getItemCount();
+        for (int i = 0, size = mListeners.size(); i < size; i++) {
+            mListeners.get(i).onScrollMetricsChanged(this);
+        }
+    }
+
+    public int getFirstVisiblePosition() {
+        return mVisibleRange != null ? mVisibleRange.firstVisible : NO_POSITION;
+    }
+
+    public int getLastVisiblePosition() {
+        return mVisibleRange != null ? mVisibleRange.lastVisible : NO_POSITION;
+    }
+
+    /**
+     * @return the range computed in the last onScrolled, null before the first one; the object is
+     * updated in place on every frame
+     */
+    public VisibleRange getVisibleRange() {
+        return mVisibleRange;
+    }
+
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    public int getDx() {
+        return mDx;
+    }
+
+    public int getDy() {
+        return mDy;
+    }
+
+    /**
+     * @return pixels scrolled along the scroll axis in the last onScrolled, positive towards the
+     * end of the adapter; unlike {@link #getDx()} and {@link #getDy()} this accounts for a reversed
+     * layout
+     */
+    public int getDelta() {
+        return mDelta;
+    }
+
+    public ScrollDirection getDirection() {
+        return mDirection;
+    }
+
+    public int getScrollState() {
+        return mScrollState;
+    }
+}
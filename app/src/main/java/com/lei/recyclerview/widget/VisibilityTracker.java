@@ -0,0 +1,251 @@
+package com.lei.recyclerview.widget;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import static androidx.recyclerview.widget.RecyclerView.NO_POSITION;
+
+/**
+ * Reports items entering and leaving the viewport, for impression logging.
+ * <p/>
+ * Scrolls, layouts and child attach/detach only mark the tracker dirty; the children are measured
+ * once in the next Choreographer frame, so a fling costs one pass per frame no matter how many
+ * scroll events it produces. {@link RecyclerViewPositionHelper} bounds the visible children along
+ * the scroll axis (a binary search for linear layouts) and only the children inside that range are
+ * measured, so prefetched and cached children off screen are never touched. The bookkeeping lives
+ * in {@link VisibleItemSet}, whose primitive arrays only grow, so steady scrolling allocates nothing.
+ * <p/>
+ * Works with any RecyclerView, including {@link RecyclerViewPager} and {@link ParallaxRecyclerView};
+ * {@link PullToLoadView#getVisibilityTracker()} reports content positions. When the adapter has
+ * stable ids items are identified by {@link RecyclerView.ViewHolder#getItemId()}, so items shifted
+ * by an insert or removal above them (e.g. prepending older messages) keep their impression.
+ * Without stable ids they are identified by the position returned from
+ * {@link #getItemPosition(RecyclerView.ViewHolder)}, and every shifted item is reported as an exit
+ * plus a new enter. The visible percentage is the share of the item's area inside the padded
+ * bounds of the RecyclerView; overlap between items (e.g. the parallax stack) is not subtracted.
+ */
+public class VisibilityTracker {
+
+    public interface Listener {
+        /**
+         * @param itemId         {@link RecyclerView#NO_ID} unless the adapter has stable ids
+         * @param visiblePercent visible share of the item's area when it entered, 0-100
+         */
+        void onItemEnter(View view, int position, long itemId, int visiblePercent);
+
+        /**
+         * @param position          the position in the last frame the item was visible in
+         * @param itemId            {@link RecyclerView#NO_ID} unless the adapter has stable ids
+         * @param maxVisiblePercent the largest visible share seen while the item was visible, 0-100
+         * @param dwellMillis       time between the enter and exit frames
+         */
+        void onItemExit(int position, long itemId, int maxVisiblePercent, long dwellMillis);
+    }
+
+    private RecyclerView mRecyclerView;
+    private RecyclerViewPositionHelper mPositionHelper;
+    private Listener mListener;
+    private int mMinVisiblePercent = 0;
+
+    private boolean mFramePosted = false;
+
+    private final VisibleItemSet<View> mItems = new VisibleItemSet<>();
+
+    private final VisibleItemSet.Callback<View> mItemCallback = new VisibleItemSet.Callback<View>() {
+        @Override
+        public void onEnter(View view, int position, long itemId, int visiblePercent) {
+            if (mListener != null) {
+                mListener.onItemEnter(view, position, itemId, visiblePercent);
+            }
+        }
+
+        @Override
+        public void onExit(int position, long itemId, int maxVisiblePercent, long dwellMillis) {
+            if (mListener != null) {
+                mListener.onItemExit(position, itemId, maxVisiblePercent, dwellMillis);
+            }
+        }
+    };
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFramePosted = false;
+            update();
+        }
+    };
+
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            requestUpdate();
+        }
+    };
+
+    private final RecyclerView.OnChildAttachStateChangeListener mChildListener =
+            new RecyclerView.OnChildAttachStateChangeListener() {
+                @Override
+                public void onChildViewAttachedToWindow(View view) {
+                    requestUpdate();
+                }
+
+                @Override
+                public void onChildViewDetachedFromWindow(View view) {
+                    requestUpdate();
+                }
+            };
+
+    private final View.OnAttachStateChangeListener mAttachListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            requestUpdate();
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            cancelFrame();
+            exitAll();
+        }
+    };
+
+    public void attachToRecyclerView(RecyclerView recyclerView) {
+        if (mRecyclerView == recyclerView) {
+            return;
+        }
+        detachFromRecyclerView();
+        mRecyclerView = recyclerView;
+        if (recyclerView == null) {
+            return;
+        }
+        mPositionHelper = RecyclerViewPositionHelper.createHelper(recyclerView);
+        recyclerView.addOnScrollListener(mScrollListener);
+        recyclerView.addOnChildAttachStateChangeListener(mChildListener);
+        recyclerView.addOnAttachStateChangeListener(mAttachListener);
+        requestUpdate();
+    }
+
+    /**
+     * Stops tracking; items still visible are reported as exited.
+     */
+    public void detachFromRecyclerView() {
+        if (mRecyclerView != null) {
+            cancelFrame();
+            exitAll();
+            mRecyclerView.removeOnScrollListener(mScrollListener);
+            mRecyclerView.removeOnChildAttachStateChangeListener(mChildListener);
+            mRecyclerView.removeOnAttachStateChangeListener(mAttachListener);
+            mRecyclerView = null;
+            mPositionHelper = null;
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    /**
+     * @param minVisiblePercent share of the item's area, 0-100, that has to be visible before it
+     *                          counts as entered; 0 means any visible pixel
+     */
+    public void setMinVisiblePercent(int minVisiblePercent) {
+        this.mMinVisiblePercent = Math.max(0, Math.min(100, minVisiblePercent));
+        requestUpdate();
+    }
+
+    /**
+     * Schedules a measurement in the next frame, e.g. after the list was covered or uncovered
+     * without scrolling. Calls within one frame are coalesced.
+     */
+    public void requestUpdate() {
+        if (mRecyclerView == null || mFramePosted) {
+            return;
+        }
+        mFramePosted = true;
+        Choreographer.getInstance().postFrameCallback(mFrameCallback);
+    }
+
+    /**
+     * The position reported to the listener, {@link RecyclerView#NO_POSITION} skips the item.
+     * Subclasses can skip headers and footers or convert to a position in the wrapped adapter.
+     *
+     * @param holder
+     */
+    protected int getItemPosition(RecyclerView.ViewHolder holder) {
+        return holder.getAdapterPosition();
+    }
+
+    private void cancelFrame() {
+        if (mFramePosted) {
+            mFramePosted = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    private void update() {
+        final RecyclerView recyclerView = mRecyclerView;
+        if (recyclerView == null) {
+            return;
+        }
+        mItems.beginFrame();
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (recyclerView.isShown() && layoutManager != null) {
+            mPositionHelper.invalidate();
+            final VisibleRange range = mPositionHelper.getVisibleRange();
+            if (range.firstVisibleChild >= 0) {
+                final RecyclerView.Adapter adapter = recyclerView.getAdapter();
+                measureChildren(recyclerView, layoutManager, range.firstVisibleChild, range.lastVisibleChild,
+                        adapter != null && adapter.hasStableIds());
+            }
+        }
+        mItems.dispatch(SystemClock.uptimeMillis(), mItemCallback);
+    }
+
+    /**
+     * Measures the children between the first and last child visible along the scroll axis, the
+     * indices are layout manager indices like the ones the range was computed from.
+     */
+    private void measureChildren(RecyclerView recyclerView, RecyclerView.LayoutManager layoutManager,
+                                 int firstChild, int lastChild, boolean stableIds) {
+        final int left = recyclerView.getPaddingLeft();
+        final int top = recyclerView.getPaddingTop();
+        final int right = recyclerView.getWidth() - recyclerView.getPaddingRight();
+        final int bottom = recyclerView.getHeight() - recyclerView.getPaddingBottom();
+        for (int i = firstChild; i <= lastChild; i++) {
+            final View child = layoutManager.getChildAt(i);
+            if (child == null) {
+                continue;
+            }
+            final int width = child.getWidth();
+            final int height = child.getHeight();
+            if (width <= 0 || height <= 0 || child.getVisibility() != View.VISIBLE) {
+                continue;
+            }
+            final int childLeft = child.getLeft() + (int) child.getTranslationX();
+            final int childTop = child.getTop() + (int) child.getTranslationY();
+            final int visibleWidth = Math.min(childLeft + width, right) - Math.max(childLeft, left);
+            final int visibleHeight = Math.min(childTop + height, bottom) - Math.max(childTop, top);
+            if (visibleWidth <= 0 || visibleHeight <= 0) {
+                continue;
+            }
+            final int percent = (int) ((long) visibleWidth * visibleHeight * 100 / ((long) width * height));
+            if (percent < mMinVisiblePercent) {
+                continue;
+            }
+            final RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(child);
+            final int position = holder == null ? NO_POSITION : getItemPosition(holder);
+            if (position == NO_POSITION) {
+                continue;
+            }
+            final long itemId = stableIds ? holder.getItemId() : RecyclerView.NO_ID;
+            mItems.add(child, stableIds ? itemId : position, position, itemId, percent);
+        }
+    }
+
+    private void exitAll() {
+        mItems.beginFrame();
+        mItems.dispatch(SystemClock.uptimeMillis(), mItemCallback);
+    }
+}
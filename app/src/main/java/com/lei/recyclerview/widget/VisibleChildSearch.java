@@ -0,0 +1,164 @@
+package com.lei.recyclerview.widget;
+
+/**
+ * Finds the visible children of a RecyclerView by child index, on top of a {@link Bounds} view of
+ * their decorated starts and ends along the scroll axis.
+ * <p/>
+ * {@link #scan} checks every child and works for any layout. {@link #search} binary-searches the
+ * starts and is only correct when they increase with the child index and no child ends after the
+ * next one starts, as with a non-reversed LinearLayoutManager outside item animations.
+ * <p/>
+ * Both fill {@code out} with child indices at {@link #FIRST}, {@link #LAST},
+ * {@link #FIRST_COMPLETELY} and {@link #LAST_COMPLETELY}, -1 where there is no such child.
+ * {@link #scanContaining} and {@link #searchContaining} find the child under a single point, e.g.
+ * the center of a pager, with the same split between any layout and ordered children.
+ */
+final class VisibleChildSearch {
+
+    interface Bounds {
+        int getStart(int index);
+
+        int getEnd(int index);
+    }
+
+    static final int FIRST = 0;
+    static final int LAST = 1;
+    static final int FIRST_COMPLETELY = 2;
+    static final int LAST_COMPLETELY = 3;
+
+    /**
+     * Below this many children the linear scan is as fast as the binary search.
+     */
+    static final int BINARY_SEARCH_MIN_CHILDREN = 16;
+
+    private VisibleChildSearch() {
+    }
+
+    /**
+     * A child is visible when it overlaps (start, end) and completely visible when it lies within
+     * [start, end].
+     */
+    static void scan(Bounds bounds, int childCount, int start, int end, int[] out) {
+        reset(out);
+        for (int i = 0; i < childCount; i++) {
+            final int childStart = bounds.getStart(i);
+            final int childEnd = bounds.getEnd(i);
+            if (childStart < end && childEnd > start) {
+                if (out[FIRST] < 0) {
+                    out[FIRST] = i;
+                }
+                out[LAST] = i;
+                if (childStart >= start && childEnd <= end) {
+                    if (out[FIRST_COMPLETELY] < 0) {
+                        out[FIRST_COMPLETELY] = i;
+                    }
+                    out[LAST_COMPLETELY] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Same result as {@link #scan} for ordered children. Only the child just before the first one
+     * starting inside the viewport can be clipped at the start edge, the remaining walks stop at
+     * the first match.
+     */
+    static void search(Bounds bounds, int childCount, int start, int end, int[] out) {
+        reset(out);
+        // first child starting at or after the start edge, and last child starting before the end edge
+        final int firstInside = lowerBound(bounds, childCount, start);
+        final int lastBeforeEnd = lowerBound(bounds, childCount, end) - 1;
+
+        int first = firstInside - 1;
+        if (first < 0 || bounds.getEnd(first) <= start) {
+            first = firstInside;
+            while (first <= lastBeforeEnd && bounds.getEnd(first) <= start) {
+                first++;
+            }
+        }
+        if (first > lastBeforeEnd) {
+            return;
+        }
+        int last = lastBeforeEnd;
+        while (last > first && bounds.getEnd(last) <= start) {
+            last--;
+        }
+        out[FIRST] = first;
+        out[LAST] = last;
+
+        for (int i = Math.max(first, firstInside); i <= last; i++) {
+            if (isCompletelyVisibleFromInside(bounds, i, start, end)) {
+                out[FIRST_COMPLETELY] = i;
+                break;
+            }
+        }
+        for (int i = last; i >= Math.max(first, firstInside); i--) {
+            if (isCompletelyVisibleFromInside(bounds, i, start, end)) {
+                out[LAST_COMPLETELY] = i;
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return index of the first child whose [start, end] contains value, or -1
+     */
+    static int scanContaining(Bounds bounds, int childCount, int value) {
+        for (int i = 0; i < childCount; i++) {
+            if (bounds.getStart(i) <= value && bounds.getEnd(i) >= value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Same result as {@link #scanContaining} for ordered children: their ends increase as well, so
+     * the first child ending at or after value is the only candidate.
+     */
+    static int searchContaining(Bounds bounds, int childCount, int value) {
+        int lo = 0;
+        int hi = childCount;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (bounds.getEnd(mid) < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < childCount && bounds.getStart(lo) <= value ? lo : -1;
+    }
+
+    /**
+     * For a child already known to start in [start, end)
+     */
+    private static boolean isCompletelyVisibleFromInside(Bounds bounds, int index, int start, int end) {
+        final int childEnd = bounds.getEnd(index);
+        return childEnd <= end && childEnd > start;
+    }
+
+    /**
+     * @return index of the first child whose start is not less than value, or childCount
+     */
+    static int lowerBound(Bounds bounds, int childCount, int value) {
+        int lo = 0;
+        int hi = childCount;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (bounds.getStart(mid) < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static void reset(int[] out) {
+        out[FIRST] = -1;
+        out[LAST] = -1;
+        out[FIRST_COMPLETELY] = -1;
+        out[LAST_COMPLETELY] = -1;
+    }
+}
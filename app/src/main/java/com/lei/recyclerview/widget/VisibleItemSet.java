@@ -0,0 +1,187 @@
+package com.lei.recyclerview.widget;
+
+/**
+ * The bookkeeping behind {@link VisibilityTracker}: the items visible after the last frame and the
+ * items measured in the current one, both sorted by key in primitive arrays.
+ * <p/>
+ * A frame starts with {@link #beginFrame()}, adds every visible item with {@link #add} and ends
+ * with {@link #dispatch}, which merges the two sorted buffers, reports exits and enters and swaps
+ * them. The arrays only grow, so steady scrolling allocates nothing.
+ *
+ * @param <V> the view reported on enter, only held until the end of the frame
+ */
+final class VisibleItemSet<V> {
+
+    interface Callback<V> {
+        void onEnter(V view, int position, long itemId, int visiblePercent);
+
+        void onExit(int position, long itemId, int maxVisiblePercent, long dwellMillis);
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Items visible after the last frame, sorted by key
+     */
+    private int mCount = 0;
+    private long[] mKeys = new long[INITIAL_CAPACITY];
+    private int[] mPositions = new int[INITIAL_CAPACITY];
+    private long[] mItemIds = new long[INITIAL_CAPACITY];
+    private int[] mMaxPercents = new int[INITIAL_CAPACITY];
+    private long[] mEnterTimes = new long[INITIAL_CAPACITY];
+
+    /**
+     * Items measured in the current frame, swapped with the arrays above afterwards
+     */
+    private int mNextCount = 0;
+    private long[] mNextKeys = new long[INITIAL_CAPACITY];
+    private int[] mNextPositions = new int[INITIAL_CAPACITY];
+    private long[] mNextItemIds = new long[INITIAL_CAPACITY];
+    private int[] mNextPercents = new int[INITIAL_CAPACITY];
+    private Object[] mNextViews = new Object[INITIAL_CAPACITY];
+    private int[] mNextMaxPercents = new int[INITIAL_CAPACITY];
+    private long[] mNextEnterTimes = new long[INITIAL_CAPACITY];
+
+    /**
+     * @return items visible after the last {@link #dispatch}
+     */
+    int size() {
+        return mCount;
+    }
+
+    void beginFrame() {
+        clearNextViews();
+        mNextCount = 0;
+    }
+
+    /**
+     * Insertion into the sorted next buffer; children are usually attached in position order, so
+     * without stable ids this is an append in the common case. An item added twice in one frame
+     * (e.g. a disappearing view during an item animation) keeps the larger percentage.
+     *
+     * @param key the stable id, or the position without stable ids
+     */
+    void add(V view, long key, int position, long itemId, int percent) {
+        if (mNextCount == mNextKeys.length) {
+            grow();
+        }
+        int i = mNextCount;
+        while (i > 0 && mNextKeys[i - 1] >= key) {
+            i--;
+        }
+        if (i < mNextCount && mNextKeys[i] == key) {
+            mNextPercents[i] = Math.max(mNextPercents[i], percent);
+            return;
+        }
+        final int moved = mNextCount - i;
+        if (moved > 0) {
+            System.arraycopy(mNextKeys, i, mNextKeys, i + 1, moved);
+            System.arraycopy(mNextPositions, i, mNextPositions, i + 1, moved);
+            System.arraycopy(mNextItemIds, i, mNextItemIds, i + 1, moved);
+            System.arraycopy(mNextPercents, i, mNextPercents, i + 1, moved);
+            System.arraycopy(mNextViews, i, mNextViews, i + 1, moved);
+        }
+        mNextKeys[i] = key;
+        mNextPositions[i] = position;
+        mNextItemIds[i] = itemId;
+        mNextPercents[i] = percent;
+        mNextViews[i] = view;
+        mNextCount++;
+    }
+
+    /**
+     * Merges the previous and the current sorted buffers, reporting exits and enters, then swaps them.
+     * Items in both keep their enter time and the larger of the two percentages.
+     *
+     * @param callback may be null to only update the state
+     */
+    @SuppressWarnings("unchecked")
+    void dispatch(long now, Callback<V> callback) {
+        int i = 0;
+        int j = 0;
+        while (i < mCount || j < mNextCount) {
+            final long previous = i < mCount ? mKeys[i] : Long.MAX_VALUE;
+            final long current = j < mNextCount ? mNextKeys[j] : Long.MAX_VALUE;
+            if (i < mCount && (j >= mNextCount || previous < current)) {
+                if (callback != null) {
+                    callback.onExit(mPositions[i], mItemIds[i], mMaxPercents[i], now - mEnterTimes[i]);
+                }
+                i++;
+            } else if (j < mNextCount && (i >= mCount || current < previous)) {
+                mNextMaxPercents[j] = mNextPercents[j];
+                mNextEnterTimes[j] = now;
+                if (callback != null) {
+                    callback.onEnter((V) mNextViews[j], mNextPositions[j], mNextItemIds[j], mNextPercents[j]);
+                }
+                j++;
+            } else {
+                mNextMaxPercents[j] = Math.max(mMaxPercents[i], mNextPercents[j]);
+                mNextEnterTimes[j] = mEnterTimes[i];
+                i++;
+                j++;
+            }
+        }
+        swap();
+    }
+
+    private void swap() {
+        long[] keys = mKeys;
+        mKeys = mNextKeys;
+        mNextKeys = keys;
+        int[] positions = mPositions;
+        mPositions = mNextPositions;
+        mNextPositions = positions;
+        long[] itemIds = mItemIds;
+        mItemIds = mNextItemIds;
+        mNextItemIds = itemIds;
+        int[] maxPercents = mMaxPercents;
+        mMaxPercents = mNextMaxPercents;
+        mNextMaxPercents = maxPercents;
+        long[] enterTimes = mEnterTimes;
+        mEnterTimes = mNextEnterTimes;
+        mNextEnterTimes = enterTimes;
+        mCount = mNextCount;
+        // don't hold on to recycled views until the next frame
+        clearNextViews();
+        mNextCount = 0;
+    }
+
+    private void clearNextViews() {
+        for (int k = 0; k < mNextCount; k++) {
+            mNextViews[k] = null;
+        }
+    }
+
+    /**
+     * Grows every buffer together, so both sides of the swap keep the same capacity.
+     */
+    private void grow() {
+        final int capacity = mNextKeys.length * 2;
+        mNextKeys = copyOf(mNextKeys, capacity);
+        mNextPositions = copyOf(mNextPositions, capacity);
+        mNextItemIds = copyOf(mNextItemIds, capacity);
+        mNextPercents = copyOf(mNextPercents, capacity);
+        mNextMaxPercents = copyOf(mNextMaxPercents, capacity);
+        mNextEnterTimes = copyOf(mNextEnterTimes, capacity);
+        Object[] views = new Object[capacity];
+        System.arraycopy(mNextViews, 0, views, 0, mNextViews.length);
+        mNextViews = views;
+        mKeys = copyOf(mKeys, capacity);
+        mPositions = copyOf(mPositions, capacity);
+        mItemIds = copyOf(mItemIds, capacity);
+        mMaxPercents = copyOf(mMaxPercents, capacity);
+        mEnterTimes = copyOf(mEnterTimes, capacity);
+    }
+
+    private static int[] copyOf(int[] array, int capacity) {
+        int[] copy = new int[capacity];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static long[] copyOf(long[] array, int capacity) {
+        long[] copy = new long[capacity];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
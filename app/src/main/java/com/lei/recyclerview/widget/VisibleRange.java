@@ -0,0 +1,67 @@
+package com.lei.recyclerview.widget;
+
+import static androidx.recyclerview.widget.RecyclerView.NO_POSITION;
+
+/**
+ * Snapshot of the visible children, filled by {@link RecyclerViewPositionHelper} in one scan.
+ * <p/>
+ * Positions are adapter positions of the children in child order, like the find*Position methods.
+ * Offsets are in pixels along the scroll axis and include item decorations.
+ */
+public final class VisibleRange {
+
+    int firstVisible = NO_POSITION;
+    int lastVisible = NO_POSITION;
+    int firstCompletelyVisible = NO_POSITION;
+    int lastCompletelyVisible = NO_POSITION;
+    int firstVisibleOffset;
+    int lastVisibleOffset;
+    /**
+     * Layout manager child indices bounding the visible children, -1 when nothing is visible
+     */
+    int firstVisibleChild = -1;
+    int lastVisibleChild = -1;
+
+    void reset() {
+        firstVisible = NO_POSITION;
+        lastVisible = NO_POSITION;
+        firstCompletelyVisible = NO_POSITION;
+        lastCompletelyVisible = NO_POSITION;
+        firstVisibleOffset = 0;
+        lastVisibleOffset = 0;
+        firstVisibleChild = -1;
+        lastVisibleChild = -1;
+    }
+
+    public int getFirstVisiblePosition() {
+        return firstVisible;
+    }
+
+    public int getLastVisiblePosition() {
+        return lastVisible;
+    }
+
+    public int getFirstCompletelyVisiblePosition() {
+        return firstCompletelyVisible;
+    }
+
+    public int getLastCompletelyVisiblePosition() {
+        return lastCompletelyVisible;
+    }
+
+    /**
+     * @return distance from the start edge (after padding) to the start of the first visible child,
+     * negative when the child is clipped
+     */
+    public int getFirstVisibleOffset() {
+        return firstVisibleOffset;
+    }
+
+    /**
+     * @return distance from the end of the last visible child to the end edge (after padding),
+     * negative when the child is clipped
+     */
+    public int getLastVisibleOffset() {
+        return lastVisibleOffset;
+    }
+}
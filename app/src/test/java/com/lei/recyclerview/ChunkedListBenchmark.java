@@ -0,0 +1,75 @@
+package com.lei.recyclerview;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ChunkedList与ArrayList在1k、100k、1M条数据下的对比，输出每次操作的平均耗时。
+ * 耗时受机器影响不做断言，需要时去掉@Ignore在本机运行
+ */
+@Ignore("benchmark, run manually")
+public class ChunkedListBenchmark {
+
+    private static final int[] SIZES = {1000, 100000, 1000000};
+
+    /**
+     * 每轮的操作次数，太大时1M的ArrayList中间插入要跑很久
+     */
+    private static final int EDITS = 2000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void compareWithArrayList() {
+        // 预热，让JIT编译两种实现
+        for (int i = 0; i < 3; i++) {
+            run(new ArrayList<Integer>(), 100000, false);
+            run(new ChunkedList<Integer>(), 100000, false);
+        }
+        for (int size : SIZES) {
+            run(new ArrayList<Integer>(), size, true);
+            run(new ChunkedList<Integer>(), size, true);
+        }
+    }
+
+    private static void run(List<Integer> list, int size, boolean print) {
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        Random random = new Random(size);
+        long edit = Long.MAX_VALUE;
+        long sequential = Long.MAX_VALUE;
+        long randomGet = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            // 中间位置插入后删除，相当于addItem/removeItem(int)
+            long start = System.nanoTime();
+            for (int i = 0; i < EDITS; i++) {
+                int index = size / 4 + random.nextInt(size / 2);
+                list.add(index, i);
+                list.remove(index + 1);
+            }
+            edit = Math.min(edit, (System.nanoTime() - start) / (EDITS * 2));
+
+            // 顺序访问，相当于滚动时逐个getItem
+            start = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                sink += list.get(i);
+            }
+            sequential = Math.min(sequential, (System.nanoTime() - start) / size);
+
+            start = System.nanoTime();
+            for (int i = 0; i < EDITS; i++) {
+                sink += list.get(random.nextInt(size));
+            }
+            randomGet = Math.min(randomGet, (System.nanoTime() - start) / EDITS);
+        }
+        if (print) {
+            System.out.println(String.format("%-12s %8d items: edit %7d ns, sequential get %4d ns, random get %4d ns (%d)",
+                    list.getClass().getSimpleName(), size, edit, sequential, randomGet, sink & 1));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.lei.recyclerview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * 随机操作序列下ChunkedList与ArrayList的结果必须完全一致
+ */
+public class ChunkedListTest {
+
+    private static final int CHUNK = ChunkedList.CHUNK_CAPACITY;
+
+    @Test
+    public void randomOperationsMatchArrayList() {
+        for (long seed = 0; seed < 20; seed++) {
+            runRandomOperations(seed, 4000);
+        }
+    }
+
+    @Test
+    public void appendAcrossChunkBoundaries() {
+        ChunkedList<Integer> chunked = new ChunkedList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < CHUNK * 5 + 3; i++) {
+            chunked.add(i);
+            expected.add(i);
+        }
+        assertSameContent("append", expected, chunked);
+    }
+
+    @Test
+    public void insertIntoFullChunkSplitsIt() {
+        ChunkedList<Integer> chunked = new ChunkedList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < CHUNK; i++) {
+            chunked.add(i);
+            expected.add(i);
+        }
+        for (int offset : new int[]{0, CHUNK / 2, CHUNK - 1, CHUNK + 1}) {
+            chunked.add(offset, -offset);
+            expected.add(offset, -offset);
+            assertSameContent("insert at " + offset, expected, chunked);
+        }
+    }
+
+    @Test
+    public void bulkInsertAndRemoveRange() {
+        ChunkedList<Integer> chunked = new ChunkedList<>(range(0, CHUNK * 3));
+        List<Integer> expected = new ArrayList<>(range(0, CHUNK * 3));
+
+        // 大批量插入在块中间拆块
+        chunked.addAll(CHUNK + 10, range(10000, 10000 + CHUNK * 2 + 7));
+        expected.addAll(CHUNK + 10, range(10000, 10000 + CHUNK * 2 + 7));
+        assertSameContent("addAll middle", expected, chunked);
+
+        // 小批量插入逐个插入
+        chunked.addAll(5, range(-20, -10));
+        expected.addAll(5, range(-20, -10));
+        assertSameContent("addAll small", expected, chunked);
+
+        // 跨多个块删除，首尾块只删一部分
+        chunked.subList(CHUNK - 3, CHUNK * 4 + 9).clear();
+        expected.subList(CHUNK - 3, CHUNK * 4 + 9).clear();
+        assertSameContent("removeRange", expected, chunked);
+
+        chunked.subList(0, chunked.size()).clear();
+        expected.clear();
+        assertSameContent("removeRange all", expected, chunked);
+
+        chunked.addAll(range(0, 3));
+        expected.addAll(range(0, 3));
+        assertSameContent("addAll after clear", expected, chunked);
+    }
+
+    @Test
+    public void removeEverythingOneByOne() {
+        ChunkedList<Integer> chunked = new ChunkedList<>(range(0, CHUNK * 4));
+        List<Integer> expected = new ArrayList<>(range(0, CHUNK * 4));
+        Random random = new Random(7);
+        while (!expected.isEmpty()) {
+            int index = random.nextInt(expected.size());
+            assertEquals(expected.remove(index), chunked.remove(index));
+            if (expected.size() % 97 == 0) {
+                assertSameContent("remove", expected, chunked);
+            }
+        }
+        assertSameContent("empty", expected, chunked);
+    }
+
+    @Test
+    public void outOfRangeIndicesThrow() {
+        ChunkedList<Integer> chunked = new ChunkedList<>(range(0, 10));
+        int[] bad = {-1, 10};
+        for (int index : bad) {
+            try {
+                chunked.get(index);
+                fail("get(" + index + ")");
+            } catch (IndexOutOfBoundsException expected) {
+                // expected
+            }
+            try {
+                chunked.remove(index);
+                fail("remove(" + index + ")");
+            } catch (IndexOutOfBoundsException expected) {
+                // expected
+            }
+        }
+        try {
+            chunked.add(11, 0);
+            fail("add(11)");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+    }
+
+    private static void runRandomOperations(long seed, int operations) {
+        Random random = new Random(seed);
+        ChunkedList<Integer> chunked = new ChunkedList<>();
+        List<Integer> expected = new ArrayList<>();
+        int next = 0;
+        for (int op = 0; op < operations; op++) {
+            int size = expected.size();
+            String message = "seed " + seed + " op " + op;
+            switch (random.nextInt(9)) {
+                case 0:
+                case 1: {
+                    int index = random.nextInt(size + 1);
+                    chunked.add(index, next);
+                    expected.add(index, next);
+                    next++;
+                    break;
+                }
+                case 2: {
+                    chunked.add(next);
+                    expected.add(next);
+                    next++;
+                    break;
+                }
+                case 3: {
+                    if (size > 0) {
+                        int index = random.nextInt(size);
+                        assertEquals(message, expected.remove(index), chunked.remove(index));
+                    }
+                    break;
+                }
+                case 4: {
+                    if (size > 0) {
+                        int index = random.nextInt(size);
+                        assertEquals(message, expected.set(index, -next), chunked.set(index, -next));
+                        next++;
+                    }
+                    break;
+                }
+                case 5: {
+                    // 批量大小覆盖逐个插入和整块插入两条路径
+                    int count = random.nextBoolean() ? random.nextInt(CHUNK / 4 + 1) : random.nextInt(CHUNK * 3);
+                    int index = random.nextInt(size + 1);
+                    List<Integer> values = range(next, next + count);
+                    next += count;
+                    assertEquals(message, expected.addAll(index, values), chunked.addAll(index, values));
+                    break;
+                }
+                case 6: {
+                    if (size > 0) {
+                        int from = random.nextInt(size);
+                        int to = from + random.nextInt(Math.min(size - from, CHUNK * 2) + 1);
+                        chunked.subList(from, to).clear();
+                        expected.subList(from, to).clear();
+                    }
+                    break;
+                }
+                case 7: {
+                    if (random.nextInt(50) == 0) {
+                        chunked.clear();
+                        expected.clear();
+                    }
+                    break;
+                }
+                default: {
+                    if (size > 0) {
+                        // 随机访问会移动缓存的块游标
+                        int index = random.nextInt(size);
+                        assertEquals(message, expected.get(index), chunked.get(index));
+                    }
+                    break;
+                }
+            }
+            assertEquals(message, expected.size(), chunked.size());
+            if (op % 50 == 0) {
+                assertSameContent(message, expected, chunked);
+            }
+        }
+        assertSameContent("seed " + seed, expected, chunked);
+    }
+
+    private static void assertSameContent(String message, List<Integer> expected, ChunkedList<Integer> actual) {
+        assertEquals(message, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(message + " at " + i, expected.get(i), actual.get(i));
+        }
+        // 倒序访问走二分查找而不是游标
+        for (int i = expected.size() - 1; i >= 0; i -= 37) {
+            assertEquals(message + " at " + i, expected.get(i), actual.get(i));
+        }
+        Iterator<Integer> iterator = actual.iterator();
+        for (Integer value : expected) {
+            assertEquals(message, value, iterator.next());
+        }
+        assertFalse(message, iterator.hasNext());
+        ListIterator<Integer> listIterator = actual.listIterator(actual.size());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(message, expected.get(i), listIterator.previous());
+        }
+        assertEquals(message, expected, actual);
+        assertEquals(message, Arrays.asList(expected.toArray()), Arrays.asList(actual.toArray()));
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,107 @@
+package com.lei.recyclerview.widget;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameHistogramTest {
+
+    private static final long MS = FrameHistogram.NANOS_PER_MILLI;
+    private static final long BUDGET_60HZ = 16666666L;
+
+    @Test
+    public void emptyHistogram() {
+        FrameHistogram histogram = new FrameHistogram(BUDGET_60HZ);
+        FrameStats stats = histogram.toStats("empty");
+        assertEquals("empty", stats.getName());
+        assertEquals(0, stats.getFrameCount());
+        assertEquals(0f, stats.getP50Millis(), 0f);
+        assertEquals(0f, stats.getP99Millis(), 0f);
+        assertEquals(0f, stats.getMaxMillis(), 0f);
+    }
+
+    @Test
+    public void percentilesAreBucketUpperEdges() {
+        FrameHistogram histogram = new FrameHistogram(BUDGET_60HZ);
+        // 90 frames of 16.6ms, 9 of 33.3ms, 1 of 50ms
+        for (int i = 0; i < 90; i++) {
+            histogram.record(16600000L);
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.record(33300000L);
+        }
+        histogram.record(50 * MS);
+
+        // 16.6ms falls in [16.5, 16.75), 33.3ms in [33.25, 33.5)
+        assertEquals(16750000L, histogram.percentile(50));
+        assertEquals(16750000L, histogram.percentile(90));
+        assertEquals(33500000L, histogram.percentile(99));
+        // the top percentile is capped at the longest frame instead of its bucket edge
+        assertEquals(50 * MS, histogram.percentile(100));
+
+        FrameStats stats = histogram.toStats("feed");
+        assertEquals(100, stats.getFrameCount());
+        assertEquals(16.75f, stats.getP50Millis(), 0.001f);
+        assertEquals(16.75f, stats.getP90Millis(), 0.001f);
+        assertEquals(33.5f, stats.getP99Millis(), 0.001f);
+        assertEquals(50f, stats.getMaxMillis(), 0.001f);
+        assertEquals(16.667f, stats.getBudgetMillis(), 0.001f);
+    }
+
+    @Test
+    public void overBudgetAndJankCounts() {
+        FrameHistogram histogram = new FrameHistogram(BUDGET_60HZ);
+        // on time, within the jitter slack, just over budget, at twice the budget
+        histogram.record(16 * MS);
+        histogram.record(BUDGET_60HZ + FrameHistogram.BUCKET_NANOS / 2);
+        histogram.record(BUDGET_60HZ + FrameHistogram.BUCKET_NANOS);
+        histogram.record(2 * BUDGET_60HZ);
+        assertEquals(4, histogram.getFrameCount());
+        assertEquals(2, histogram.getOverBudgetCount());
+        assertEquals(1, histogram.getJankCount());
+    }
+
+    @Test
+    public void budgetChangeAppliesToLaterFrames() {
+        FrameHistogram histogram = new FrameHistogram(BUDGET_60HZ);
+        histogram.record(12 * MS);
+        histogram.setBudgetNanos(8333333L);
+        histogram.record(12 * MS);
+        assertEquals(1, histogram.getOverBudgetCount());
+        assertEquals(8.333f, histogram.toStats("120hz").getBudgetMillis(), 0.001f);
+    }
+
+    @Test
+    public void longFramesGoToTheLastBucket() {
+        FrameHistogram histogram = new FrameHistogram(BUDGET_60HZ);
+        histogram.record(16 * MS);
+        histogram.record(1000 * MS);
+        assertEquals(1000 * MS, histogram.getMaxFrameNanos());
+        assertEquals(1000 * MS, histogram.percentile(99));
+        assertEquals(16250000L, histogram.percentile(50));
+    }
+
+    @Test
+    public void nonPositiveDurationsAreIgnored() {
+        FrameHistogram histogram = new FrameHistogram(BUDGET_60HZ);
+        histogram.record(0);
+        histogram.record(-5 * MS);
+        assertEquals(0, histogram.getFrameCount());
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        FrameHistogram histogram = new FrameHistogram(BUDGET_60HZ);
+        for (int i = 0; i < 10; i++) {
+            histogram.record(40 * MS);
+        }
+        histogram.reset();
+        assertEquals(0, histogram.getFrameCount());
+        assertEquals(0, histogram.getJankCount());
+        assertEquals(0, histogram.getOverBudgetCount());
+        assertEquals(0, histogram.percentile(50));
+        histogram.record(10 * MS);
+        // the bucket edge 10.25ms is capped at the longest frame
+        assertEquals(10 * MS, histogram.percentile(50));
+    }
+}
@@ -0,0 +1,58 @@
+package com.lei.recyclerview.widget;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Linear scan against binary search by child count, in ns per lookup. Timings depend on the
+ * machine, so there are no assertions; remove @Ignore to run it locally.
+ */
+@Ignore("benchmark, run manually")
+public class VisibleChildSearchBenchmark {
+
+    private static final int[] CHILD_COUNTS = {8, 16, 32, 64, 100, 256};
+    private static final int CHILD_SIZE = 40;
+    private static final int ITERATIONS = 200000;
+
+    @Test
+    public void compareScanAndSearch() {
+        int[] out = new int[4];
+        // warm up both paths
+        measure(build(64), true, out);
+        measure(build(64), false, out);
+        for (int childCount : CHILD_COUNTS) {
+            VisibleChildSearchTest.ArrayBounds bounds = build(childCount);
+            long scan = measure(bounds, false, out);
+            long search = measure(bounds, true, out);
+            System.out.println(String.format("%4d children: scan %5d ns, search %4d ns", childCount, scan, search));
+        }
+    }
+
+    private static VisibleChildSearchTest.ArrayBounds build(int childCount) {
+        int[] starts = new int[childCount];
+        int[] ends = new int[childCount];
+        for (int i = 0; i < childCount; i++) {
+            starts[i] = i * CHILD_SIZE - CHILD_SIZE / 2;
+            ends[i] = starts[i] + CHILD_SIZE;
+        }
+        return new VisibleChildSearchTest.ArrayBounds(starts, ends);
+    }
+
+    private static long measure(VisibleChildSearchTest.ArrayBounds bounds, boolean search, int[] out) {
+        // viewport covering all but the partially visible first and last child
+        int end = (bounds.count - 1) * CHILD_SIZE;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                if (search) {
+                    VisibleChildSearch.search(bounds, bounds.count, 0, end, out);
+                } else {
+                    VisibleChildSearch.scan(bounds, bounds.count, 0, end, out);
+                }
+            }
+            best = Math.min(best, (System.nanoTime() - start) / ITERATIONS);
+        }
+        return best;
+    }
+}
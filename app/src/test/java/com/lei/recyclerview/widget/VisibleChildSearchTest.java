@@ -0,0 +1,140 @@
+package com.lei.recyclerview.widget;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The binary searches must give the same child indices as the linear scans on ordered layouts.
+ */
+public class VisibleChildSearchTest {
+
+    @Test
+    public void searchMatchesScanOnRandomLayouts() {
+        Random random = new Random(42);
+        int[] expected = new int[4];
+        int[] actual = new int[4];
+        for (int run = 0; run < 100000; run++) {
+            ArrayBounds bounds = randomLayout(random);
+            int start = random.nextInt(20);
+            int end = start + random.nextInt(600);
+            VisibleChildSearch.scan(bounds, bounds.count, start, end, expected);
+            VisibleChildSearch.search(bounds, bounds.count, start, end, actual);
+            assertEquals("run " + run + " " + bounds + " viewport [" + start + ", " + end + "]",
+                    Arrays.toString(expected), Arrays.toString(actual));
+        }
+    }
+
+    @Test
+    public void searchContainingMatchesScanOnRandomLayouts() {
+        Random random = new Random(7);
+        for (int run = 0; run < 100000; run++) {
+            ArrayBounds bounds = randomLayout(random);
+            int value = random.nextInt(600) - 100;
+            assertEquals("run " + run + " " + bounds + " value " + value,
+                    VisibleChildSearch.scanContaining(bounds, bounds.count, value),
+                    VisibleChildSearch.searchContaining(bounds, bounds.count, value));
+        }
+    }
+
+    @Test
+    public void containingOnSharedEdgesAndGaps() {
+        // 0 and 1 share the edge at 10, 2 is empty at 20, a gap lies between 20 and 25
+        ArrayBounds bounds = new ArrayBounds(new int[]{0, 10, 20, 25}, new int[]{10, 20, 20, 40});
+        int[] values = {-1, 0, 10, 15, 20, 22, 25, 40, 41};
+        int[] expected = {-1, 0, 0, 1, 1, -1, 3, 3, -1};
+        for (int i = 0; i < values.length; i++) {
+            assertEquals("value " + values[i], expected[i],
+                    VisibleChildSearch.scanContaining(bounds, bounds.count, values[i]));
+            assertEquals("value " + values[i], expected[i],
+                    VisibleChildSearch.searchContaining(bounds, bounds.count, values[i]));
+        }
+        assertEquals(-1, VisibleChildSearch.searchContaining(bounds, 0, 5));
+    }
+
+    @Test
+    public void noChildren() {
+        int[] out = new int[4];
+        VisibleChildSearch.search(new ArrayBounds(new int[0], new int[0]), 0, 0, 100, out);
+        assertEquals("[-1, -1, -1, -1]", Arrays.toString(out));
+    }
+
+    @Test
+    public void childClippedAtBothEdges() {
+        int[] out = new int[4];
+        // one child larger than the viewport: visible, never completely visible
+        VisibleChildSearch.search(new ArrayBounds(new int[]{-50}, new int[]{150}), 1, 0, 100, out);
+        assertEquals("[0, 0, -1, -1]", Arrays.toString(out));
+    }
+
+    @Test
+    public void zeroSizeChildrenOnTheEdges() {
+        int[] out = new int[4];
+        // children of size 0 exactly on the start and end edges are not visible
+        ArrayBounds bounds = new ArrayBounds(new int[]{-10, 0, 0, 50, 100, 100}, new int[]{0, 0, 50, 100, 100, 120});
+        VisibleChildSearch.scan(bounds, bounds.count, 0, 100, out);
+        assertEquals("[2, 3, 2, 3]", Arrays.toString(out));
+        VisibleChildSearch.search(bounds, bounds.count, 0, 100, out);
+        assertEquals("[2, 3, 2, 3]", Arrays.toString(out));
+    }
+
+    @Test
+    public void lowerBound() {
+        ArrayBounds bounds = new ArrayBounds(new int[]{0, 10, 10, 20}, new int[]{10, 10, 20, 30});
+        assertEquals(0, VisibleChildSearch.lowerBound(bounds, 4, -5));
+        assertEquals(1, VisibleChildSearch.lowerBound(bounds, 4, 10));
+        assertEquals(3, VisibleChildSearch.lowerBound(bounds, 4, 11));
+        assertEquals(4, VisibleChildSearch.lowerBound(bounds, 4, 21));
+    }
+
+    /**
+     * Children laid out one after another like a LinearLayoutManager, with zero-size children and
+     * the occasional gap where margins sit outside the decorated bounds.
+     */
+    static ArrayBounds randomLayout(Random random) {
+        int count = random.nextInt(120);
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int position = -random.nextInt(200);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(8) == 0) {
+                position += random.nextInt(6);
+            }
+            starts[i] = position;
+            position += random.nextInt(6) == 0 ? 0 : random.nextInt(60);
+            ends[i] = position;
+        }
+        return new ArrayBounds(starts, ends);
+    }
+
+    static final class ArrayBounds implements VisibleChildSearch.Bounds {
+
+        final int[] starts;
+        final int[] ends;
+        final int count;
+
+        ArrayBounds(int[] starts, int[] ends) {
+            this.starts = starts;
+            this.ends = ends;
+            this.count = starts.length;
+        }
+
+        @Override
+        public int getStart(int index) {
+            return starts[index];
+        }
+
+        @Override
+        public int getEnd(int index) {
+            return ends[index];
+        }
+
+        @Override
+        public String toString() {
+            return "starts " + Arrays.toString(starts) + " ends " + Arrays.toString(ends);
+        }
+    }
+}
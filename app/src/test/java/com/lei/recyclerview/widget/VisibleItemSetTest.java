@@ -0,0 +1,227 @@
+package com.lei.recyclerview.widget;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Enter and exit reporting of the sorted buffers behind {@link VisibilityTracker}.
+ */
+public class VisibleItemSetTest {
+
+    private static final long NO_ID = -1;
+
+    @Test
+    public void reportsEnterAndExitOnce() {
+        VisibleItemSet<String> set = new VisibleItemSet<>();
+        RecordingCallback callback = new RecordingCallback();
+
+        frame(set, callback, 100, 0, 1, 2);
+        assertEquals("[enter 0, enter 1, enter 2]", callback.drain());
+
+        frame(set, callback, 200, 1, 2, 3);
+        assertEquals("[exit 0 dwell 100, enter 3]", callback.drain());
+
+        frame(set, callback, 300, 1, 2, 3);
+        assertEquals("[]", callback.drain());
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    public void addsOutOfOrderAndKeepsLargerPercentOfDuplicates() {
+        VisibleItemSet<String> set = new VisibleItemSet<>();
+        RecordingCallback callback = new RecordingCallback();
+
+        set.beginFrame();
+        set.add("c", 30, 30, NO_ID, 40);
+        set.add("a", 10, 10, NO_ID, 100);
+        set.add("b", 20, 20, NO_ID, 10);
+        set.add("b'", 20, 20, NO_ID, 60);
+        set.dispatch(0, callback);
+        assertEquals("[enter 10 a 100%, enter 20 b 60%, enter 30 c 40%]", callback.drainWithViews());
+    }
+
+    @Test
+    public void exitReportsMaxPercentAndDwell() {
+        VisibleItemSet<String> set = new VisibleItemSet<>();
+        RecordingCallback callback = new RecordingCallback();
+
+        set.beginFrame();
+        set.add("a", 5, 5, NO_ID, 20);
+        set.dispatch(1000, callback);
+        set.beginFrame();
+        set.add("a", 5, 5, NO_ID, 90);
+        set.dispatch(1100, callback);
+        set.beginFrame();
+        set.add("a", 5, 5, NO_ID, 50);
+        set.dispatch(1200, callback);
+        callback.drain();
+
+        set.beginFrame();
+        set.dispatch(1500, callback);
+        assertEquals("[exit 5 max 90% dwell 500]", callback.drainWithPercents());
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void stableKeysSurviveShiftedPositions() {
+        VisibleItemSet<String> set = new VisibleItemSet<>();
+        RecordingCallback callback = new RecordingCallback();
+
+        // ids 700, 300, 500 at positions 0..2, then two items are prepended
+        set.beginFrame();
+        set.add("x", 700, 0, 700, 100);
+        set.add("y", 300, 1, 300, 100);
+        set.add("z", 500, 2, 500, 100);
+        set.dispatch(0, callback);
+        callback.drain();
+
+        set.beginFrame();
+        set.add("x", 700, 2, 700, 100);
+        set.add("y", 300, 3, 300, 100);
+        set.dispatch(10, callback);
+        // only the item pushed off screen exits, with the last position it was seen at
+        assertEquals("[exit 2 id 500]", callback.drainWithIds());
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        VisibleItemSet<String> set = new VisibleItemSet<>();
+        RecordingCallback callback = new RecordingCallback();
+        int[] keys = new int[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keys.length - 1 - i;
+        }
+        frame(set, callback, 0, keys);
+        assertEquals(100, callback.drainEvents().size());
+        assertEquals(100, set.size());
+        frame(set, callback, 10);
+        assertEquals(100, callback.drainEvents().size());
+    }
+
+    @Test
+    public void matchesMapModelOnRandomFrames() {
+        Random random = new Random(3);
+        VisibleItemSet<String> set = new VisibleItemSet<>();
+        RecordingCallback callback = new RecordingCallback();
+        // key -> enter time and max percent of the items visible after the last frame
+        Map<Long, long[]> model = new HashMap<>();
+        for (int frame = 0; frame < 20000; frame++) {
+            long now = frame * 16L;
+            TreeMap<Long, Integer> next = new TreeMap<>();
+            int count = random.nextInt(40);
+            set.beginFrame();
+            for (int i = 0; i < count; i++) {
+                long key = random.nextInt(60);
+                int percent = random.nextInt(101);
+                set.add("v" + key, key, (int) key, NO_ID, percent);
+                Integer old = next.get(key);
+                next.put(key, old == null ? percent : Math.max(old, percent));
+            }
+            set.dispatch(now, callback);
+
+            List<String> expected = new ArrayList<>();
+            for (Long key : new TreeMap<>(model).keySet()) {
+                if (!next.containsKey(key)) {
+                    long[] state = model.remove(key);
+                    expected.add("exit " + key + " max " + state[1] + "% dwell " + (now - state[0]));
+                }
+            }
+            for (Map.Entry<Long, Integer> entry : next.entrySet()) {
+                long[] state = model.get(entry.getKey());
+                if (state == null) {
+                    model.put(entry.getKey(), new long[]{now, entry.getValue()});
+                    expected.add("enter " + entry.getKey() + " " + entry.getValue() + "%");
+                } else {
+                    state[1] = Math.max(state[1], entry.getValue());
+                }
+            }
+            assertEquals("frame " + frame, sorted(expected), sorted(callback.drainModelEvents()));
+            assertEquals(model.size(), set.size());
+        }
+    }
+
+    private static void frame(VisibleItemSet<String> set, RecordingCallback callback, long now, int... keys) {
+        set.beginFrame();
+        for (int key : keys) {
+            set.add("v" + key, key, key, NO_ID, 100);
+        }
+        set.dispatch(now, callback);
+    }
+
+    private static List<String> sorted(List<String> events) {
+        List<String> copy = new ArrayList<>(events);
+        java.util.Collections.sort(copy);
+        return copy;
+    }
+
+    private static final class RecordingCallback implements VisibleItemSet.Callback<String> {
+
+        private final List<Object[]> mEvents = new ArrayList<>();
+
+        @Override
+        public void onEnter(String view, int position, long itemId, int visiblePercent) {
+            mEvents.add(new Object[]{"enter", view, position, itemId, visiblePercent, 0L});
+        }
+
+        @Override
+        public void onExit(int position, long itemId, int maxVisiblePercent, long dwellMillis) {
+            mEvents.add(new Object[]{"exit", null, position, itemId, maxVisiblePercent, dwellMillis});
+        }
+
+        List<Object[]> drainEvents() {
+            List<Object[]> events = new ArrayList<>(mEvents);
+            mEvents.clear();
+            return events;
+        }
+
+        String drain() {
+            List<String> out = new ArrayList<>();
+            for (Object[] e : drainEvents()) {
+                out.add("exit".equals(e[0]) ? "exit " + e[2] + " dwell " + e[5] : "enter " + e[2]);
+            }
+            return out.toString();
+        }
+
+        String drainWithViews() {
+            List<String> out = new ArrayList<>();
+            for (Object[] e : drainEvents()) {
+                out.add(e[0] + " " + e[2] + " " + e[1] + " " + e[4] + "%");
+            }
+            return out.toString();
+        }
+
+        String drainWithPercents() {
+            List<String> out = new ArrayList<>();
+            for (Object[] e : drainEvents()) {
+                out.add(e[0] + " " + e[2] + " max " + e[4] + "% dwell " + e[5]);
+            }
+            return out.toString();
+        }
+
+        String drainWithIds() {
+            List<String> out = new ArrayList<>();
+            for (Object[] e : drainEvents()) {
+                out.add(e[0] + " " + e[2] + " id " + e[3]);
+            }
+            return out.toString();
+        }
+
+        List<String> drainModelEvents() {
+            List<String> out = new ArrayList<>();
+            for (Object[] e : drainEvents()) {
+                out.add("exit".equals(e[0])
+                        ? "exit " + e[2] + " max " + e[4] + "% dwell " + e[5]
+                        : "enter " + e[2] + " " + e[4] + "%");
+            }
+            return out;
+        }
+    }
+}